@@ -13,6 +13,9 @@ plugins {
 	id("io.sentry.jvm.gradle") version "4.4.1"
 }
 
+// Ships with the Boot plugin, it generates the AOT sources and classes that end up in the boot jar
+apply(plugin = "org.springframework.boot.aot")
+
 group = "hexlet.code"
 version = "0.0.1-SNAPSHOT"
 
@@ -20,6 +23,31 @@ application {
 	mainClass.set("hexlet.code.AppApplication")
 }
 
+sourceSets {
+	create("loadTest") {
+		compileClasspath += sourceSets.main.get().output + sourceSets.test.get().output
+		runtimeClasspath += sourceSets.main.get().output + sourceSets.test.get().output
+	}
+	create("jmh") {
+		compileClasspath += sourceSets.main.get().output
+		runtimeClasspath += sourceSets.main.get().output
+	}
+}
+
+val loadTestImplementation: Configuration by configurations.getting {
+	extendsFrom(configurations.testImplementation.get())
+}
+val loadTestRuntimeOnly: Configuration by configurations.getting {
+	extendsFrom(configurations.testRuntimeOnly.get())
+}
+
+val jmhImplementation: Configuration by configurations.getting {
+	extendsFrom(configurations.implementation.get())
+}
+val jmhRuntimeOnly: Configuration by configurations.getting {
+	extendsFrom(configurations.runtimeOnly.get())
+}
+
 repositories {
 	mavenCentral()
 	maven { url = uri("https://repo.spring.io/milestone") }
@@ -35,10 +63,16 @@ dependencies {
 	implementation("org.springframework.boot:spring-boot-configuration-processor")
 	implementation("org.springframework.boot:spring-boot-starter-security")
 	implementation("org.springframework.boot:spring-boot-starter-oauth2-resource-server")
+	implementation("org.springframework.boot:spring-boot-starter-actuator")
 	implementation("org.springdoc:springdoc-openapi-starter-webmvc-ui:2.5.0")
 	implementation("io.sentry:sentry-spring-boot-starter-jakarta:7.8.0")
 
 	implementation("org.openapitools:jackson-databind-nullable:0.2.6")
+	implementation("com.fasterxml.jackson.module:jackson-module-blackbird")
+	implementation("org.roaringbitmap:RoaringBitmap:1.0.6")
+	implementation("org.apache.lucene:lucene-core:9.11.1")
+	implementation("org.apache.lucene:lucene-queryparser:9.11.1")
+	implementation("net.ttddyy:datasource-proxy:1.10")
 	implementation("org.mapstruct:mapstruct:1.5.5.Final")
 	annotationProcessor("org.mapstruct:mapstruct-processor:1.5.5.Final")
 
@@ -52,6 +86,11 @@ dependencies {
 	testImplementation(platform("org.junit:junit-bom:5.10.2"))
 	testImplementation("org.junit.jupiter:junit-jupiter:5.10.2")
 	testImplementation("net.javacrumbs.json-unit:json-unit-assertj:3.2.7")
+
+	loadTestImplementation("org.hdrhistogram:HdrHistogram:2.2.2")
+
+	jmhImplementation("org.openjdk.jmh:jmh-core:1.37")
+	"jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
 }
 
 tasks.withType<Test> {
@@ -63,6 +102,84 @@ tasks.withType<Test> {
 	}
 }
 
+val loadTest = tasks.register<Test>("loadTest") {
+	description = "Drives a fixed-rate mixed workload against the app and records latency percentiles."
+	group = "verification"
+	testClassesDirs = sourceSets["loadTest"].output.classesDirs
+	classpath = sourceSets["loadTest"].runtimeClasspath
+	shouldRunAfter(tasks.test)
+	outputs.upToDateWhen { false }
+	// Pass -PloadTest.rate=100 etc. through to the harness
+	systemProperties(project.properties.filterKeys { it.startsWith("loadTest.") })
+	systemProperty("loadTest.output", layout.buildDirectory.dir("reports/load-test").get().asFile.path)
+}
+
+tasks.register<JavaExec>("jmh") {
+	description = "Runs the JMH benchmarks, -Pjmh.include=<regex> selects a subset."
+	group = "verification"
+	classpath = sourceSets["jmh"].runtimeClasspath
+	mainClass.set("org.openjdk.jmh.Main")
+	val results = layout.buildDirectory.file("reports/jmh/results.json").get().asFile
+	doFirst { results.parentFile.mkdirs() }
+	args(project.findProperty("jmh.include")?.toString() ?: ".*", "-rf", "json", "-rff", results.path)
+}
+
+// Fast-start layout: the AOT-processed boot jar extracted next to its libraries, plus a class data sharing
+// archive dumped by a training run that exits once the context is refreshed. Run it with
+// java -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true -Dspring.profiles.active=production -jar app.jar
+// from build/fast-start
+val fastStartDir = layout.buildDirectory.dir("fast-start")
+val javaExecutable = File(System.getProperty("java.home"), "bin/java").path
+// Bean conditions are evaluated once, by processAot, so the context is built for the profile the app runs with.
+// No database is reachable at build time: AOT and the training run point the datasource at an in-memory H2,
+// which is a property, not a condition, and is replaced by the real one at runtime
+val aotProfile = project.findProperty("aotProfile")?.toString() ?: "production"
+val aotDatasource = listOf("spring.datasource.url=jdbc:h2:mem:aot", "spring.datasource.username=sa",
+	"spring.datasource.password=")
+
+tasks.named<org.springframework.boot.gradle.tasks.aot.ProcessAot>("processAot") {
+	args(listOf("--spring.profiles.active=$aotProfile") + aotDatasource.map { "--$it" })
+}
+
+val extractBootJar = tasks.register<Exec>("extractBootJar") {
+	description = "Extracts the boot jar into build/fast-start."
+	group = "distribution"
+	dependsOn(tasks.bootJar)
+	doFirst { delete(fastStartDir) }
+	commandLine(javaExecutable, "-Djarmode=tools", "-jar", tasks.bootJar.get().archiveFile.get().asFile.path,
+		"extract", "--destination", fastStartDir.get().asFile.path)
+	// A fixed name, so that the launch command does not change with the version
+	doLast {
+		val extracted = fastStartDir.get().file(tasks.bootJar.get().archiveFileName.get()).asFile
+		extracted.renameTo(fastStartDir.get().file("app.jar").asFile)
+	}
+}
+
+tasks.register<Exec>("fastStartDist") {
+	description = "Builds the fast-start layout with an AOT-processed context and an AppCDS archive."
+	group = "distribution"
+	dependsOn(extractBootJar)
+	workingDir(fastStartDir)
+	// The archive only maps for the same JVM and class path, so the training run uses the exact runtime command
+	commandLine(listOf(javaExecutable, "-XX:ArchiveClassesAtExit=app.jsa", "-Xlog:cds=error",
+		"-Dspring.aot.enabled=true", "-Dspring.context.exit=onRefresh", "-Dspring.profiles.active=$aotProfile")
+		+ aotDatasource.map { "-D$it" } + listOf("-jar", "app.jar"))
+	outputs.dir(fastStartDir)
+}
+
+tasks.register<JavaExec>("startupBenchmark") {
+	description = "Measures time to the first successful request of the regular and the fast-start app."
+	group = "verification"
+	dependsOn(tasks.bootJar, "fastStartDist")
+	classpath = sourceSets["loadTest"].runtimeClasspath
+	mainClass.set("hexlet.code.load.StartupBenchmark")
+	systemProperties(project.properties.filterKeys { it.startsWith("startup.") })
+	systemProperty("startup.bootJar", tasks.bootJar.get().archiveFile.get().asFile.path)
+	systemProperty("startup.fastStartDir", fastStartDir.get().asFile.path)
+	systemProperty("startup.profile", aotProfile)
+	systemProperty("startup.output", layout.buildDirectory.dir("reports/startup").get().asFile.path)
+}
+
 jacoco {
 	toolVersion = "0.8.11"
 }
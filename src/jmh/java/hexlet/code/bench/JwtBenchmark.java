@@ -0,0 +1,89 @@
+package hexlet.code.bench;
+
+import hexlet.code.util.JwsDecoders;
+import hexlet.code.util.JwsEncoder;
+import hexlet.code.util.JwtKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Issuing a token at login and checking it on every request, per signing algorithm
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    @Param({"RS256", "ES256", "EdDSA"})
+    private String algorithm;
+
+    private JwtEncoder encoder;
+    private JwtDecoder decoder;
+    private JwtEncoderParameters parameters;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() throws GeneralSecurityException {
+        var generator = switch (algorithm) {
+            case "RS256" -> {
+                var rsa = KeyPairGenerator.getInstance("RSA");
+                rsa.initialize(2048);
+                yield rsa;
+            }
+            case "ES256" -> {
+                var ec = KeyPairGenerator.getInstance("EC");
+                ec.initialize(new ECGenParameterSpec("secp256r1"));
+                yield ec;
+            }
+            case "EdDSA" -> KeyPairGenerator.getInstance("Ed25519");
+            default -> throw new IllegalArgumentException(algorithm);
+        };
+        var pair = generator.generateKeyPair();
+        var key = new JwtKey(pair.getPublic(), pair.getPrivate(), null);
+        encoder = new JwsEncoder(() -> key);
+        decoder = JwsDecoders.of(() -> List.of(key));
+
+        var now = Instant.now();
+        parameters = JwtEncoderParameters.from(JwtClaimsSet.builder()
+                .issuer("self")
+                .issuedAt(now)
+                .expiresAt(now.plus(1, ChronoUnit.DAYS))
+                .subject("hexlet@example.com")
+                .build());
+        token = encoder.encode(parameters).getTokenValue();
+    }
+
+    @Benchmark
+    public String sign() {
+        return encoder.encode(parameters).getTokenValue();
+    }
+
+    @Benchmark
+    public Jwt verify() {
+        return decoder.decode(token);
+    }
+}
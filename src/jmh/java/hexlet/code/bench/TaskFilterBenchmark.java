@@ -0,0 +1,185 @@
+package hexlet.code.bench;
+
+import hexlet.code.dto.task.LabelMatch;
+import hexlet.code.dto.task.TaskParamsDTO;
+import hexlet.code.specification.task.TaskSqlFilter;
+import hexlet.code.util.TaskFacets;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Compares a filtered page (20 ids plus the total) answered by the facet bitmaps with the same page from SQL
+// over an in-memory H2 with the production indexes
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskFilterBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int STATUSES = 5;
+    private static final int USERS = 1_000;
+    private static final int LABELS = 50;
+
+    @Param({"100000"})
+    private int tasks;
+
+    @Param({"status", "statusAndAssignee", "anyLabels", "allLabels"})
+    private String filter;
+
+    private Connection connection;
+    private TaskFacets facets;
+    private TaskParamsDTO params;
+    private String countSql;
+    private String pageSql;
+    private List<Object> args;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        // H2 would otherwise hand back the cached result of the previous identical query
+        connection = DriverManager.getConnection("jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE");
+        facets = new TaskFacets();
+        try (var statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE task_statuses (id BIGINT PRIMARY KEY, slug VARCHAR(255))");
+            statement.execute("CREATE TABLE tasks (id BIGINT PRIMARY KEY, name VARCHAR(255), "
+                    + "task_status_id BIGINT, assignee_id BIGINT)");
+            statement.execute("CREATE INDEX idx_tasks_status ON tasks (task_status_id)");
+            statement.execute("CREATE INDEX idx_tasks_assignee ON tasks (assignee_id)");
+            statement.execute("CREATE TABLE tasks_labels (tasks_id BIGINT, labels_id BIGINT, "
+                    + "PRIMARY KEY (tasks_id, labels_id))");
+            statement.execute("CREATE INDEX idx_tasks_labels_label ON tasks_labels (labels_id, tasks_id)");
+        }
+        seed();
+
+        params = new TaskParamsDTO();
+        switch (filter) {
+            case "status" -> params.setStatus("status-1");
+            case "statusAndAssignee" -> {
+                params.setStatus("status-1");
+                params.setAssigneeIds(List.of(1L, 2L, 3L));
+            }
+            case "anyLabels" -> params.setLabelIds(List.of(1L, 2L));
+            case "allLabels" -> {
+                params.setLabelIds(List.of(1L, 2L));
+                params.setLabelMatch(LabelMatch.ALL);
+            }
+            default -> throw new IllegalArgumentException(filter);
+        }
+        var condition = new TaskSqlFilter().build(params);
+        countSql = "SELECT COUNT(*) FROM tasks t WHERE " + condition.getSql();
+        pageSql = "SELECT t.id FROM tasks t WHERE " + condition.getSql() + " ORDER BY t.id LIMIT " + PAGE_SIZE;
+        args = condition.getArgs();
+
+        System.out.printf("%nFacet index: %d tasks, %d bitmaps, %d KiB%n",
+                facets.taskCount(), facets.bitmapCount(), facets.sizeInBytes() / 1024);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (var statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public void facets(Blackhole blackhole) {
+        var matching = facets.match(params);
+        blackhole.consume(matching.getLongCardinality());
+        var iterator = matching.getIntIterator();
+        for (var i = 0; i < PAGE_SIZE && iterator.hasNext(); i++) {
+            blackhole.consume(iterator.next());
+        }
+    }
+
+    @Benchmark
+    public void sql(Blackhole blackhole) throws SQLException {
+        try (var statement = connection.prepareStatement(countSql)) {
+            bind(statement);
+            try (var rs = statement.executeQuery()) {
+                rs.next();
+                blackhole.consume(rs.getLong(1));
+            }
+        }
+        try (var statement = connection.prepareStatement(pageSql)) {
+            bind(statement);
+            try (var rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    blackhole.consume(rs.getLong(1));
+                }
+            }
+        }
+    }
+
+    private void bind(PreparedStatement statement) throws SQLException {
+        for (var i = 0; i < args.size(); i++) {
+            statement.setObject(i + 1, args.get(i));
+        }
+    }
+
+    // Skewed like the seed profile: a few statuses, users and labels carry most of the tasks
+    private void seed() throws SQLException {
+        var random = new Random(42);
+        connection.setAutoCommit(false);
+        try (var status = connection.prepareStatement("INSERT INTO task_statuses VALUES (?, ?)");
+             var task = connection.prepareStatement("INSERT INTO tasks VALUES (?, ?, ?, ?)");
+             var label = connection.prepareStatement("INSERT INTO tasks_labels VALUES (?, ?)")) {
+            for (var id = 1; id <= STATUSES; id++) {
+                status.setLong(1, id);
+                status.setString(2, "status-" + id);
+                status.executeUpdate();
+            }
+            for (var id = 1; id <= tasks; id++) {
+                var statusId = 1 + (int) (STATUSES * Math.pow(random.nextDouble(), 1.5));
+                var assigneeId = 1 + (long) (USERS * Math.pow(random.nextDouble(), 2));
+                task.setLong(1, id);
+                task.setString(2, "task " + id);
+                task.setLong(3, statusId);
+                task.setLong(4, assigneeId);
+                task.addBatch();
+
+                var labelIds = new ArrayList<Long>();
+                for (var i = random.nextInt(4); i > 0; i--) {
+                    var labelId = 1 + (long) (LABELS * Math.pow(random.nextDouble(), 3));
+                    if (!labelIds.contains(labelId)) {
+                        labelIds.add(labelId);
+                        label.setLong(1, id);
+                        label.setLong(2, labelId);
+                        label.addBatch();
+                    }
+                }
+                facets.add(id, "status-" + statusId, assigneeId, labelIds);
+                if (id % 10_000 == 0) {
+                    task.executeBatch();
+                    label.executeBatch();
+                }
+            }
+            task.executeBatch();
+            label.executeBatch();
+        }
+        connection.commit();
+        facets.optimize();
+    }
+}
@@ -0,0 +1,106 @@
+package hexlet.code.bench;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import hexlet.code.config.JacksonConfig;
+import hexlet.code.dto.task.TaskDTO;
+import org.openapitools.jackson.nullable.JsonNullableModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Cost of writing one page of tasks as the list endpoint does. The converter variants resolve the writer
+// per call like MappingJackson2HttpMessageConverter, preResolved reuses one like TaskJsonHttpMessageConverter
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskJsonBenchmark {
+
+    @Param({"1000"})
+    private int tasks;
+
+    private List<TaskDTO> page;
+    private JavaType listType;
+    private ObjectMapper reflective;
+    private ObjectMapper blackbird;
+    private ObjectWriter preResolved;
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 20);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // The configuration before the fast path: SimpleDateFormat and reflective bean serializers
+        reflective = new Jackson2ObjectMapperBuilder()
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .modulesToInstall(new JsonNullableModule())
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .simpleDateFormat("yyyy-MM-dd")
+                .build();
+        blackbird = JacksonConfig.builder(true).build();
+        listType = blackbird.getTypeFactory().constructCollectionType(List.class, TaskDTO.class);
+        preResolved = blackbird.writerFor(listType).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        var random = new Random(42);
+        page = new ArrayList<>(tasks);
+        for (var id = 1; id <= tasks; id++) {
+            var task = new TaskDTO();
+            task.setId((long) id);
+            task.setVersion((long) random.nextInt(10));
+            task.setIndex((long) random.nextInt(10_000));
+            task.setRank(id * 65_536L);
+            task.setCreatedAt(LocalDate.of(2024, 1, 1).plusDays(random.nextInt(365)));
+            task.setTitle("Task " + id);
+            task.setContent("Description of task " + id + " with a few more words in it");
+            task.setStatus("status-" + random.nextInt(5));
+            task.setTaskLabelIds(new HashSet<>(List.of((long) random.nextInt(50), (long) random.nextInt(50))));
+            task.setAssigneeId((long) random.nextInt(1_000));
+            page.add(task);
+        }
+    }
+
+    @Benchmark
+    public int converterReflective() throws IOException {
+        out.reset();
+        reflective.writerFor(listType).writeValue(out, page);
+        return out.size();
+    }
+
+    @Benchmark
+    public int converterBlackbird() throws IOException {
+        out.reset();
+        blackbird.writerFor(listType).writeValue(out, page);
+        return out.size();
+    }
+
+    @Benchmark
+    public int preResolved() throws IOException {
+        out.reset();
+        preResolved.writeValue(out, page);
+        return out.size();
+    }
+}
@@ -0,0 +1,129 @@
+package hexlet.code.bench;
+
+import hexlet.code.component.TraceSamplingProperties;
+import hexlet.code.util.TraceSampler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.sentry.Hint;
+import io.sentry.ISerializer;
+import io.sentry.Sentry;
+import io.sentry.SentryEnvelope;
+import io.sentry.SentryOptions;
+import io.sentry.SpanStatus;
+import io.sentry.TransactionContext;
+import io.sentry.TransactionOptions;
+import io.sentry.transport.ITransport;
+import io.sentry.transport.RateLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+// Tracing cost of one request with a transaction and three child spans, one in a hundred failing. Sent envelopes
+// are serialized on the calling thread, which the HTTP transport would do in the background, and then discarded
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TraceSamplingBenchmark {
+
+    @Param({"disabled", "all", "head5", "adaptive"})
+    private String sampling;
+
+    private final TransactionContext context = new TransactionContext("GET /api/tasks/42", "http.server");
+    private final TransactionOptions options = new TransactionOptions();
+    private int requests;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Sentry.init(sentry -> {
+            sentry.setDsn("https://key@o0.ingest.sentry.io/0");
+            sentry.setSendClientReports(false);
+            sentry.setTransportFactory((opts, details) -> new SerializingTransport(opts));
+            var properties = new TraceSamplingProperties();
+            switch (sampling) {
+                case "all" -> sentry.setTracesSampleRate(1.0);
+                case "head5" -> {
+                    properties.setKeepErrors(false);
+                    properties.setSlowThreshold(null);
+                    install(sentry, properties);
+                }
+                case "adaptive" -> install(sentry, properties);
+                default -> {
+                }
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Sentry.close();
+    }
+
+    @Benchmark
+    public void request() {
+        var transaction = Sentry.startTransaction(context, options);
+        for (var i = 0; i < 3; i++) {
+            transaction.startChild("db.sql.query", "SELECT * FROM tasks WHERE id = ?").finish();
+        }
+        transaction.setStatus(++requests % 100 == 0 ? SpanStatus.INTERNAL_ERROR : SpanStatus.OK);
+        transaction.finish();
+    }
+
+    private static void install(SentryOptions sentry, TraceSamplingProperties properties) {
+        var sampler = new TraceSampler(properties, new SimpleMeterRegistry());
+        sentry.setTracesSampler(sampler);
+        sentry.setBeforeSendTransaction(sampler);
+    }
+
+    private static final class SerializingTransport implements ITransport {
+
+        private final ISerializer serializer;
+        private final RateLimiter rateLimiter;
+
+        SerializingTransport(SentryOptions options) {
+            this.serializer = options.getSerializer();
+            this.rateLimiter = new RateLimiter(options);
+        }
+
+        @Override
+        public void send(SentryEnvelope envelope, Hint hint) throws IOException {
+            try {
+                serializer.serialize(envelope, OutputStream.nullOutputStream());
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public void flush(long timeoutMillis) {
+        }
+
+        @Override
+        public RateLimiter getRateLimiter() {
+            return rateLimiter;
+        }
+
+        @Override
+        public void close(boolean isRestarting) {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package hexlet.code.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hexlet.code.dto.task.TaskCreateDTO;
+import hexlet.code.dto.task.TaskUpdateDTO;
+import hexlet.code.model.Label;
+import hexlet.code.model.Task;
+import hexlet.code.model.TaskStatus;
+import hexlet.code.model.User;
+import hexlet.code.repository.LabelRepository;
+import hexlet.code.repository.TaskRepository;
+import hexlet.code.repository.TaskStatusRepository;
+import hexlet.code.repository.UserRepository;
+import hexlet.code.util.ModelUtils;
+import net.datafaker.Faker;
+import org.junit.jupiter.api.Test;
+import org.openapitools.jackson.nullable.JsonNullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Open-model load test: requests start on a fixed schedule regardless of how fast earlier ones complete,
+// and latency is measured from the scheduled start so that queueing delay is not hidden.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "rate-limit.enabled=false",
+    "logging.level.root=WARN"
+})
+@Import(LoadTestConfig.class)
+public class ApiLoadTest {
+
+    private static final int SEED_BATCH_SIZE = 500;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ModelUtils modelUtils;
+
+    @Autowired
+    private Faker faker;
+
+    @Autowired
+    private ObjectMapper om;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LabelRepository labelRepository;
+
+    @Autowired
+    private TaskStatusRepository taskStatusRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final Random random = new Random(LoadTestSettings.SEED);
+
+    private List<String> statusSlugs;
+    private List<Long> userIds;
+    private List<Long> labelIds;
+    private List<Long> taskIds;
+    private String token;
+
+    @Test
+    public void run() throws Exception {
+        seed();
+        token = send(login()).body();
+
+        drive(LoadTestSettings.WARMUP_SECONDS, new LatencyReport());
+        var report = new LatencyReport();
+        var elapsed = drive(LoadTestSettings.DURATION_SECONDS, report);
+        report.write(elapsed);
+
+        assertThat(report.getHistograms()).isNotEmpty();
+        assertThat(report.totalErrors()).isZero();
+    }
+
+    private double drive(int seconds, LatencyReport report) throws InterruptedException {
+        var executor = Executors.newFixedThreadPool(LoadTestSettings.CONCURRENCY);
+        var interval = TimeUnit.SECONDS.toNanos(1) / LoadTestSettings.RATE;
+        var total = (long) LoadTestSettings.RATE * seconds;
+        var start = System.nanoTime();
+
+        for (long i = 0; i < total; i++) {
+            var intendedStart = start + i * interval;
+            var delay = intendedStart - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            var request = nextRequest();
+            executor.execute(() -> {
+                boolean success;
+                try {
+                    var status = send(request.request()).statusCode();
+                    success = status == request.expectedStatus();
+                } catch (Exception e) {
+                    success = false;
+                }
+                report.record(request.endpoint(), System.nanoTime() - intendedStart, success);
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        return (System.nanoTime() - start) / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+
+    // Requests are generated on the scheduling thread only, so the sequence is reproducible for a given seed
+    private LoadRequest nextRequest() {
+        var roll = random.nextInt(100);
+        try {
+            if (roll < 5) {
+                return new LoadRequest("login", login(), 200);
+            } else if (roll < 45) {
+                return new LoadRequest("list", authorized("/api/tasks?" + randomFilter()).GET().build(), 200);
+            } else if (roll < 75) {
+                return new LoadRequest("show", authorized("/api/tasks/" + pick(taskIds)).GET().build(), 200);
+            } else if (roll < 90) {
+                var data = new TaskCreateDTO();
+                data.setTitle(faker.lorem().word());
+                data.setContent(faker.lorem().paragraph());
+                data.setStatus(pick(statusSlugs));
+                data.setAssigneeId(pick(userIds));
+                var body = HttpRequest.BodyPublishers.ofString(om.writeValueAsString(data));
+                return new LoadRequest("create", authorized("/api/tasks").POST(body).build(), 201);
+            } else {
+                var data = new TaskUpdateDTO();
+                data.setTitle(JsonNullable.of(faker.lorem().word()));
+                data.setStatus(JsonNullable.of(pick(statusSlugs)));
+                var body = HttpRequest.BodyPublishers.ofString(om.writeValueAsString(data));
+                return new LoadRequest("update", authorized("/api/tasks/" + pick(taskIds)).PUT(body).build(), 200);
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String randomFilter() {
+        var params = new ArrayList<String>();
+        if (random.nextBoolean()) {
+            params.add("status=" + pick(statusSlugs));
+        }
+        if (random.nextInt(3) == 0) {
+            params.add("assigneeId=" + pick(userIds));
+        }
+        if (random.nextInt(3) == 0) {
+            params.add("labelId=" + pick(labelIds));
+        }
+        if (random.nextInt(5) == 0) {
+            params.add("titleCont=" + faker.lorem().characters(2));
+        }
+        return String.join("&", params);
+    }
+
+    private HttpRequest login() {
+        var body = "{\"username\": \"hexlet@example.com\", \"password\": \"qwerty\"}";
+        return request("/api/login")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest.Builder authorized(String path) {
+        return request(path).header("Authorization", "Bearer " + token);
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json");
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private <T> T pick(List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private void seed() {
+        statusSlugs = taskStatusRepository.findAll().stream().map(TaskStatus::getSlug).toList();
+
+        var users = new ArrayList<User>();
+        var emails = new HashSet<String>();
+        while (users.size() < LoadTestSettings.USERS) {
+            var user = modelUtils.newUser();
+            if (emails.add(user.getEmail())) {
+                users.add(user);
+            }
+        }
+        userIds = userRepository.saveAll(users).stream().map(User::getId).toList();
+
+        var labels = new ArrayList<Label>();
+        for (var i = 0; i < LoadTestSettings.LABELS; i++) {
+            labels.add(modelUtils.newLabel());
+        }
+        labels = new ArrayList<>(labelRepository.saveAll(labels));
+        labelIds = labels.stream().map(Label::getId).toList();
+
+        var statuses = taskStatusRepository.findAll();
+        var ids = new ArrayList<Long>();
+        var batch = new ArrayList<Task>();
+        for (var i = 0; i < LoadTestSettings.TASKS; i++) {
+            var task = modelUtils.newTask(pick(statuses), random.nextInt(5) == 0 ? null : pick(users));
+            for (var j = random.nextInt(3); j > 0; j--) {
+                task.getLabels().add(pick(labels));
+            }
+            batch.add(task);
+            if (batch.size() == SEED_BATCH_SIZE || i == LoadTestSettings.TASKS - 1) {
+                taskRepository.saveAll(batch).forEach(saved -> ids.add(saved.getId()));
+                batch.clear();
+            }
+        }
+        taskIds = ids;
+    }
+
+    private record LoadRequest(String endpoint, HttpRequest request, int expectedStatus) {
+    }
+}
@@ -0,0 +1,74 @@
+package hexlet.code.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public class LatencyReport {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    public void record(String endpoint, long latencyNanos, boolean success) {
+        var micros = Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), MAX_LATENCY_MICROS);
+        histograms.computeIfAbsent(endpoint, k -> new ConcurrentHistogram(MAX_LATENCY_MICROS, 3))
+                .recordValue(micros);
+        if (!success) {
+            errors.computeIfAbsent(endpoint, k -> new LongAdder()).increment();
+        }
+    }
+
+    public long totalErrors() {
+        return errors.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    public Map<String, Histogram> getHistograms() {
+        return histograms;
+    }
+
+    // One line per endpoint in a fixed order, so that results of two builds can be compared with diff
+    public void write(double elapsedSeconds) throws IOException {
+        Files.createDirectories(LoadTestSettings.OUTPUT);
+        var summary = LoadTestSettings.OUTPUT.resolve("results.txt");
+        try (var out = new PrintStream(Files.newOutputStream(summary))) {
+            out.println("# " + LoadTestSettings.describe());
+            out.printf("%-12s %8s %7s %9s %9s %9s %9s %9s %9s%n",
+                    "endpoint", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+            for (var entry : new TreeMap<>(histograms).entrySet()) {
+                var histogram = entry.getValue();
+                var errorCount = errors.getOrDefault(entry.getKey(), new LongAdder()).sum();
+                out.printf("%-12s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                        entry.getKey(),
+                        histogram.getTotalCount(),
+                        errorCount,
+                        histogram.getTotalCount() / elapsedSeconds,
+                        millis(histogram.getValueAtPercentile(50)),
+                        millis(histogram.getValueAtPercentile(90)),
+                        millis(histogram.getValueAtPercentile(99)),
+                        millis(histogram.getValueAtPercentile(99.9)),
+                        millis(histogram.getMaxValue()));
+            }
+        }
+        for (var entry : histograms.entrySet()) {
+            var file = LoadTestSettings.OUTPUT.resolve(entry.getKey() + ".hgrm");
+            try (var out = new PrintStream(Files.newOutputStream(file))) {
+                entry.getValue().outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / MICROS_PER_MILLI;
+    }
+}
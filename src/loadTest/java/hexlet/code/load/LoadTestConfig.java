@@ -0,0 +1,19 @@
+package hexlet.code.load;
+
+import net.datafaker.Faker;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+import java.util.Random;
+
+@TestConfiguration
+public class LoadTestConfig {
+
+    // Seeded so that every run generates the same dataset and the same request sequence
+    @Bean
+    @Primary
+    public Faker seededFaker() {
+        return new Faker(new Random(LoadTestSettings.SEED));
+    }
+}
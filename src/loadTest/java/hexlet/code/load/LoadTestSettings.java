@@ -0,0 +1,24 @@
+package hexlet.code.load;
+
+import java.nio.file.Path;
+
+public final class LoadTestSettings {
+
+    public static final long SEED = Long.getLong("loadTest.seed", 42L);
+    public static final int USERS = Integer.getInteger("loadTest.users", 50);
+    public static final int LABELS = Integer.getInteger("loadTest.labels", 10);
+    public static final int TASKS = Integer.getInteger("loadTest.tasks", 2000);
+    public static final int RATE = Integer.getInteger("loadTest.rate", 50);
+    public static final int WARMUP_SECONDS = Integer.getInteger("loadTest.warmup", 10);
+    public static final int DURATION_SECONDS = Integer.getInteger("loadTest.duration", 30);
+    public static final int CONCURRENCY = Integer.getInteger("loadTest.concurrency", 64);
+    public static final Path OUTPUT = Path.of(System.getProperty("loadTest.output", "build/reports/load-test"));
+
+    private LoadTestSettings() {
+    }
+
+    public static String describe() {
+        return "seed=" + SEED + " users=" + USERS + " labels=" + LABELS + " tasks=" + TASKS
+                + " rate=" + RATE + "/s warmup=" + WARMUP_SECONDS + "s duration=" + DURATION_SECONDS + "s";
+    }
+}
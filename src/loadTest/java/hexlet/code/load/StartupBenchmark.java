@@ -0,0 +1,130 @@
+package hexlet.code.load;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Starts the app as a fresh JVM again and again and measures the time from the process start to the first
+// successful login, which needs the web server, security, JPA and the seeded admin user. The regular mode runs
+// the boot jar as is, the fast-start mode the extracted AOT jar with its class data sharing archive
+public final class StartupBenchmark {
+
+    private static final int RUNS = Integer.getInteger("startup.runs", 5);
+    private static final Duration TIMEOUT = Duration.ofSeconds(Long.getLong("startup.timeout", 120L));
+    private static final Path BOOT_JAR = Path.of(System.getProperty("startup.bootJar", "build/libs/app.jar"));
+    private static final Path FAST_START_DIR = Path.of(System.getProperty("startup.fastStartDir", "build/fast-start"));
+    private static final Path OUTPUT = Path.of(System.getProperty("startup.output", "build/reports/startup"));
+    // The fast-start context is built for this profile, both modes run with it for a fair comparison
+    private static final String PROFILE = System.getProperty("startup.profile", "production");
+    private static final String JAVA = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    private static final String LOGIN = "{\"username\": \"hexlet@example.com\", \"password\": \"qwerty\"}";
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        new StartupBenchmark().run();
+    }
+
+    private void run() throws Exception {
+        Files.createDirectories(OUTPUT);
+        var modes = new LinkedHashMap<String, List<String>>();
+        modes.put("regular", List.of(JAVA, "-jar", BOOT_JAR.toAbsolutePath().toString()));
+        modes.put("fast-start", List.of(JAVA, "-XX:SharedArchiveFile=app.jsa", "-Dspring.aot.enabled=true",
+                "-jar", "app.jar"));
+        var workingDirs = Map.of("regular", Path.of("."), "fast-start", FAST_START_DIR);
+
+        var results = new LinkedHashMap<String, long[]>();
+        for (var mode : modes.entrySet()) {
+            var millis = new long[RUNS];
+            for (var run = 0; run < RUNS; run++) {
+                millis[run] = measure(mode.getKey(), run, mode.getValue(), workingDirs.get(mode.getKey()));
+                System.out.printf("%s run %d: %d ms%n", mode.getKey(), run + 1, millis[run]);
+            }
+            results.put(mode.getKey(), millis);
+        }
+        write(results);
+    }
+
+    private long measure(String mode, int run, List<String> command, Path workingDir) throws Exception {
+        var port = freePort();
+        var arguments = new ArrayList<>(command);
+        // Every run starts with the same empty H2 database, the login limit would count the polls
+        arguments.add("--server.port=" + port);
+        arguments.add("--rate-limit.enabled=false");
+        arguments.add("--spring.profiles.active=" + PROFILE);
+        arguments.add("--spring.datasource.url=jdbc:h2:mem:startup");
+        arguments.add("--spring.datasource.username=sa");
+        arguments.add("--spring.datasource.password=");
+        var log = OUTPUT.resolve(mode + "-" + (run + 1) + ".log");
+        var login = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(LOGIN))
+                .build();
+
+        var start = System.nanoTime();
+        var process = new ProcessBuilder(arguments)
+                .directory(workingDir.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            while (System.nanoTime() - start < TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(mode + " exited with " + process.exitValue() + ", see " + log);
+                }
+                try {
+                    if (client.send(login, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    }
+                } catch (ConnectException e) {
+                    // Not listening yet
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException(mode + " did not answer within " + TIMEOUT + ", see " + log);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static void write(Map<String, long[]> results) throws IOException {
+        var summary = OUTPUT.resolve("results.txt");
+        try (var out = new PrintStream(Files.newOutputStream(summary))) {
+            out.println("# time to first successful request, runs=" + RUNS + " java=" + Runtime.version());
+            out.printf("%-12s %9s %9s %9s%n", "mode", "min ms", "median ms", "max ms");
+            for (var entry : results.entrySet()) {
+                var millis = entry.getValue().clone();
+                Arrays.sort(millis);
+                out.printf("%-12s %9d %9d %9d%n", entry.getKey(), millis[0], millis[millis.length / 2],
+                        millis[millis.length - 1]);
+            }
+        }
+        System.out.print(Files.readString(summary));
+    }
+
+    private static int freePort() throws IOException {
+        try (var socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package hexlet.code.component;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Keys are PEM text or a resource location. The algorithm follows from the key type unless set
+@Component
+@ConfigurationProperties(prefix = "jwt")
+@Getter
+@Setter
+public class JwtKeyProperties {
+    private String privateKey;
+    private String publicKey;
+    private String algorithm;
+
+    // Public keys of earlier signing keys, tokens they signed stay valid until they are removed from here
+    private List<String> previousPublicKeys = new ArrayList<>();
+
+    // PEM file or directory with the signing key and the accepted public keys, replaces the properties above
+    private String keySet;
+    private Duration keySetRefresh = Duration.ofMinutes(1);
+    private Duration jwksMaxAge = Duration.ofMinutes(5);
+}
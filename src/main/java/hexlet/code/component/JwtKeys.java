@@ -0,0 +1,200 @@
+package hexlet.code.component;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.jwk.JWKSet;
+import hexlet.code.util.JwtKey;
+import hexlet.code.util.PemKeys;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Keys for issuing and checking tokens. They come either from the jwt.private-key / public-key properties or
+// from jwt.key-set, a PEM file or directory that is polled for changes, so that nodes pick up a rotation
+// without a restart. Tokens are always checked against the keys in memory
+@Slf4j
+@Component
+public class JwtKeys {
+
+    @Autowired
+    private JwtKeyProperties properties;
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    private volatile Snapshot snapshot;
+    private volatile List<String> keySetState = List.of();
+
+    @PostConstruct
+    public void load() {
+        if (properties.getKeySet() == null || properties.getKeySet().isBlank()) {
+            snapshot = fromProperties();
+        } else {
+            keySetState = keySetState();
+            snapshot = fromKeySet();
+        }
+        log.info("Signing tokens with {} key {}, accepting {}", getSigningKey().getAlgorithm(),
+                getSigningKey().getKid(), getVerificationKeys().stream().map(JwtKey::getKid).toList());
+    }
+
+    // A broken key set is logged and ignored, the node keeps the keys it has
+    @Scheduled(initialDelayString = "#{@jwtKeyProperties.keySetRefresh.toMillis()}",
+            fixedDelayString = "#{@jwtKeyProperties.keySetRefresh.toMillis()}")
+    public void refresh() {
+        if (properties.getKeySet() == null || properties.getKeySet().isBlank()) {
+            return;
+        }
+        try {
+            var state = keySetState();
+            if (state.equals(keySetState)) {
+                return;
+            }
+            snapshot = fromKeySet();
+            keySetState = state;
+            log.info("Reloaded JWT keys, signing with {}, accepting {}", getSigningKey().getKid(),
+                    getVerificationKeys().stream().map(JwtKey::getKid).toList());
+        } catch (RuntimeException e) {
+            log.error("Could not reload JWT keys from {}", properties.getKeySet(), e);
+        }
+    }
+
+    public JwtKey getSigningKey() {
+        return snapshot.signingKey();
+    }
+
+    // The signing key first, then the ones only kept for verification
+    public List<JwtKey> getVerificationKeys() {
+        return snapshot.verificationKeys();
+    }
+
+    public JWKSet getPublicJwks() {
+        return snapshot.jwks();
+    }
+
+    private Snapshot fromProperties() {
+        var signingKey = new JwtKey(PemKeys.readPublicKey(read(properties.getPublicKey())),
+                PemKeys.readPrivateKey(read(properties.getPrivateKey())), properties.getAlgorithm());
+        var publicKeys = properties.getPreviousPublicKeys().stream()
+                .map(previous -> PemKeys.readPublicKey(read(previous)))
+                .toList();
+        return Snapshot.of(signingKey, publicKeys);
+    }
+
+    // Every PEM block of the files counts: exactly one private key, which signs, and any number of public
+    // keys, which verify. The public key of the signing key has to be among them
+    private Snapshot fromKeySet() {
+        var privateKeys = new ArrayList<PrivateKey>();
+        var publicKeys = new ArrayList<PublicKey>();
+        for (var file : keySetFiles()) {
+            for (var block : PemKeys.split(readFile(file))) {
+                if (PemKeys.isPrivateKey(block)) {
+                    privateKeys.add(PemKeys.readPrivateKey(block));
+                } else {
+                    publicKeys.add(PemKeys.readPublicKey(block));
+                }
+            }
+        }
+        if (privateKeys.size() != 1) {
+            throw new IllegalStateException("Expected one private key in " + properties.getKeySet() + " but found "
+                    + privateKeys.size());
+        }
+        var privateKey = privateKeys.get(0);
+        var signingKey = publicKeys.stream()
+                .filter(publicKey -> publicKey.getAlgorithm().equals(privateKey.getAlgorithm()))
+                .map(publicKey -> new JwtKey(publicKey, privateKey, properties.getAlgorithm()))
+                .filter(JwtKeys::isPair)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("The public key of the signing key is missing in "
+                        + properties.getKeySet()));
+        var others = publicKeys.stream()
+                .filter(publicKey -> !publicKey.equals(signingKey.getPublicKey()))
+                .toList();
+        return Snapshot.of(signingKey, others);
+    }
+
+    // JDK keys cannot tell their public half, a signature made with one has to verify with the other
+    private static boolean isPair(JwtKey key) {
+        var probe = "jwt key probe".getBytes(StandardCharsets.US_ASCII);
+        var header = new JWSHeader(key.getAlgorithm());
+        try {
+            return key.verifier().verify(header, probe, key.signer().sign(header, probe));
+        } catch (JOSEException e) {
+            return false;
+        }
+    }
+
+    private List<Path> keySetFiles() {
+        var path = Path.of(properties.getKeySet());
+        if (!Files.isDirectory(path)) {
+            return List.of(path);
+        }
+        try (Stream<Path> files = Files.list(path)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".pem"))
+                    .filter(Files::isRegularFile)
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list " + path, e);
+        }
+    }
+
+    // Names, sizes and modification times, compared to skip reading the keys when nothing changed
+    private List<String> keySetState() {
+        return keySetFiles().stream()
+                .map(file -> {
+                    try {
+                        return file + ":" + Files.size(file) + ":" + Files.getLastModifiedTime(file).toMillis();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Cannot read " + file, e);
+                    }
+                })
+                .toList();
+    }
+
+    private static String readFile(Path file) {
+        try {
+            return Files.readString(file, StandardCharsets.US_ASCII);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read JWT keys from " + file, e);
+        }
+    }
+
+    private String read(String value) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalStateException("JWT key is not configured");
+        }
+        if (value.strip().startsWith("-----BEGIN")) {
+            return value;
+        }
+        try {
+            return resourceLoader.getResource(value).getContentAsString(StandardCharsets.US_ASCII);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read JWT key " + value, e);
+        }
+    }
+
+    private record Snapshot(JwtKey signingKey, List<JwtKey> verificationKeys, JWKSet jwks) {
+
+        static Snapshot of(JwtKey signingKey, List<PublicKey> otherPublicKeys) {
+            var keys = new ArrayList<JwtKey>();
+            keys.add(signingKey);
+            otherPublicKeys.forEach(publicKey -> keys.add(new JwtKey(publicKey, null, null)));
+            var jwks = new JWKSet(keys.stream().map(JwtKey::getPublicJwk).toList());
+            return new Snapshot(signingKey, List.copyOf(keys), jwks);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package hexlet.code.component;
+
+import hexlet.code.model.OutboxEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Slf4j
+@Component
+public class LoggingOutboxEventSink implements OutboxEventSink {
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        for (var event : events) {
+            log.info("Outbox event {}: {} {} {}",
+                    event.getId(), event.getType(), event.getAggregateType(), event.getAggregateId());
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package hexlet.code.component;
+
+import hexlet.code.model.OutboxEvent;
+
+import java.util.List;
+
+public interface OutboxEventSink {
+
+    // Events come ordered by id. Throwing leaves the whole batch in the outbox to be retried on the next poll,
+    // so implementations must tolerate redelivery.
+    void publish(List<OutboxEvent> events);
+}
@@ -0,0 +1,103 @@
+package hexlet.code.component;
+
+import hexlet.code.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxEventSink sink;
+
+    @Autowired
+    private OutboxProperties properties;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+    private Counter delivered;
+    private Counter failures;
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("outbox.pending", pending, AtomicLong::get)
+                .description("Events waiting in the outbox")
+                .register(meterRegistry);
+        TimeGauge.builder("outbox.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Age of the oldest undelivered event")
+                .register(meterRegistry);
+        delivered = meterRegistry.counter("outbox.delivered");
+        failures = meterRegistry.counter("outbox.failures");
+    }
+
+    @Scheduled(fixedDelayString = "#{@outboxProperties.pollInterval.toMillis()}")
+    public void poll() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            drain();
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("Outbox delivery failed, batch will be retried", e);
+        }
+    }
+
+    // Synchronized so that the scheduled poll and a direct call do not drain side by side
+    public synchronized int drain() {
+        var total = 0;
+        int count;
+        do {
+            count = transactionTemplate.execute(status -> deliverBatch());
+            total += count;
+        } while (count == properties.getBatchSize());
+        return total;
+    }
+
+    // The batch is claimed, published and deleted in one transaction. It only goes out when it starts at the
+    // oldest event, otherwise a relay on another node holds older events and this one waits for the next poll.
+    // So there is one relay delivering at a time and events reach the sink in id order across nodes
+    private int deliverBatch() {
+        var batch = outboxEventRepository.claimBatch(properties.getBatchSize());
+        var range = outboxEventRepository.findIdRange();
+        if (range.getFirst() == null) {
+            pending.set(0);
+            lagMillis.set(0);
+            return 0;
+        }
+        if (batch.isEmpty() || !batch.get(0).getId().equals(range.getFirst())) {
+            return 0;
+        }
+        // Ids are only skipped by rolled back inserts, so the range is a close upper bound of what waits
+        pending.set(range.getLast() - range.getFirst() + 1);
+        lagMillis.set(Duration.between(batch.get(0).getCreatedAt(), Instant.now()).toMillis());
+        sink.publish(batch);
+        outboxEventRepository.deleteAllInBatch(batch);
+        delivered.increment(batch.size());
+        pending.set(range.getLast() - batch.get(batch.size() - 1).getId());
+        return batch.size();
+    }
+}
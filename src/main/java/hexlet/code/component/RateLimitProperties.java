@@ -0,0 +1,50 @@
+package hexlet.code.component;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.validator.constraints.time.DurationMin;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+@Validated
+@Getter
+@Setter
+public class RateLimitProperties {
+    private boolean enabled = true;
+    @Positive
+    private int maxKeys = 100_000;
+    @Valid
+    private List<Rule> rules = new ArrayList<>();
+
+    public enum KeyType {
+        SUBJECT,
+        IP
+    }
+
+    @Getter
+    @Setter
+    public static class Rule {
+        @NotBlank
+        private String path;
+        private String method;
+        @NotNull
+        private KeyType key = KeyType.SUBJECT;
+        // RateLimiter spaces requests period / capacity apart, both have to be positive
+        @Positive
+        private long capacity;
+        @NotNull
+        @DurationMin(nanos = 1)
+        private Duration period;
+    }
+}
@@ -0,0 +1,25 @@
+package hexlet.code.component;
+
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+@Component
+@ConfigurationProperties(prefix = "seed")
+@Validated
+@Getter
+@Setter
+public class SeedProperties {
+    // Targets are totals for the whole table, so running the seeder again only tops the data up
+    private int users = 1_000;
+    private int labels = 50;
+    private int tasks = 100_000;
+    // Rows per transaction, SyntheticDataSeeder splits them across statements as the parameter limit requires
+    @Positive
+    private int batchSize = 1_000;
+    private long randomSeed = 42;
+    private String password = "qwerty";
+}
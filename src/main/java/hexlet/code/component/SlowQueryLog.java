@@ -0,0 +1,203 @@
+package hexlet.code.component;
+
+import hexlet.code.util.SqlShapes;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Statements slower than the threshold, counted by shape and logged without their parameters. On Postgres the
+// plan of a slow select, the task list queries of TaskSpecification among them, is logged once per shape and
+// interval. The statement thread only compares the duration, the rest happens on a background thread
+@Slf4j
+@Component
+public class SlowQueryLog implements QueryExecutionListener, MeterBinder {
+
+    private static final String OTHER = "other";
+
+    @Autowired
+    private SlowQueryProperties properties;
+
+    private final Map<String, Shape> shapes = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+    private ThreadPoolExecutor executor;
+    private volatile MeterRegistry meterRegistry;
+    private volatile DataSource dataSource;
+    private Boolean postgres;
+
+    @PostConstruct
+    public void start() {
+        executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                runnable -> {
+                    var thread = new Thread(runnable, "slow-query-log");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, pool) -> dropped.increment());
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    // The data source without the proxy, plans are read through it so that they are not timed themselves
+    public void setDataSource(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("db.slow_queries.queued", executor, pool -> pool.getQueue().size())
+                .register(registry);
+        FunctionCounter.builder("db.slow_queries.dropped", dropped, LongAdder::sum)
+                .description("Slow statements not logged because the queue was full")
+                .register(registry);
+        meterRegistry = registry;
+        shapes.values().forEach(shape -> shape.register(registry));
+    }
+
+    public Map<String, Long> counts() {
+        var counts = new TreeMap<String, Long>();
+        shapes.forEach((shape, entry) -> counts.put(shape, entry.count.get()));
+        return counts;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo info, List<QueryInfo> queries) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo info, List<QueryInfo> queries) {
+        var millis = info.getElapsedTime();
+        if (millis < properties.getThreshold().toMillis() || queries.isEmpty()) {
+            return;
+        }
+        // The statement may be reused once this returns, the first parameter set is copied for the plan
+        var query = queries.get(0);
+        var parameters = query.getParametersList().isEmpty()
+                ? List.<ParameterSetOperation>of()
+                : List.copyOf(query.getParametersList().get(0));
+        var batchSize = info.isBatch() ? info.getBatchSize() : 0;
+        executor.execute(() -> report(query.getQuery(), parameters, millis, batchSize));
+    }
+
+    private void report(String sql, List<ParameterSetOperation> parameters, long millis, int batchSize) {
+        var shape = shapeOf(SqlShapes.shape(sql));
+        var count = shape.count.incrementAndGet();
+        log.warn("Slow query took {} ms{}, shape {} seen {} times: {} [{} parameters redacted]", millis,
+                batchSize > 0 ? " for a batch of " + batchSize : "", shape.id, count, SqlShapes.redact(sql),
+                parameters.size());
+        if (shouldExplain(sql, shape)) {
+            var plan = explain(sql, parameters);
+            if (plan != null) {
+                log.warn("Plan of slow query shape {}:\n{}", shape.id, SqlShapes.redact(plan));
+            }
+        }
+    }
+
+    private Shape shapeOf(String text) {
+        var shape = shapes.get(text);
+        if (shape != null) {
+            return shape;
+        }
+        var key = shapes.size() < properties.getMaxShapes() ? text : OTHER;
+        return shapes.computeIfAbsent(key, k -> {
+            var created = new Shape(OTHER.equals(k) ? OTHER : SqlShapes.id(k));
+            var registry = meterRegistry;
+            if (registry != null) {
+                created.register(registry);
+            }
+            return created;
+        });
+    }
+
+    private boolean shouldExplain(String sql, Shape shape) {
+        if (!properties.isExplain() || dataSource == null
+                || !sql.stripLeading().toLowerCase(Locale.ROOT).startsWith("select") || !isPostgres()) {
+            return false;
+        }
+        var now = System.nanoTime();
+        if (shape.explainedAt != 0 && now - shape.explainedAt < properties.getExplainInterval().toNanos()) {
+            return false;
+        }
+        shape.explainedAt = now;
+        return true;
+    }
+
+    // Plain EXPLAIN, ANALYZE would run the statement again. Postgres plans the statement with the parameters
+    // bound, so that the plan is the one the slow statement got
+    private String explain(String sql, List<ParameterSetOperation> parameters) {
+        try (var connection = dataSource.getConnection();
+             var statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            statement.setQueryTimeout((int) Math.max(1, properties.getExplainTimeout().toSeconds()));
+            for (var parameter : parameters) {
+                parameter.getMethod().invoke(statement, parameter.getArgs());
+            }
+            var plan = new StringJoiner("\n");
+            try (var rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    plan.add(rows.getString(1));
+                }
+            }
+            return plan.toString();
+        } catch (SQLException | ReflectiveOperationException | IllegalArgumentException e) {
+            log.debug("Could not explain slow query {}", sql, e);
+            return null;
+        }
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            try (var connection = dataSource.getConnection()) {
+                postgres = "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+        return postgres;
+    }
+
+    // Only touched by the log thread, apart from the counter
+    private static final class Shape {
+
+        private final String id;
+        private final AtomicLong count = new AtomicLong();
+        private long explainedAt;
+
+        Shape(String id) {
+            this.id = id;
+        }
+
+        void register(MeterRegistry registry) {
+            FunctionCounter.builder("db.slow_queries", count, AtomicLong::get)
+                    .description("Statements slower than the slow-query threshold")
+                    .tag("shape", id)
+                    .register(registry);
+        }
+    }
+}
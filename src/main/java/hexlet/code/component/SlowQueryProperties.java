@@ -0,0 +1,25 @@
+package hexlet.code.component;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "slow-query")
+@Getter
+@Setter
+public class SlowQueryProperties {
+    private boolean enabled = true;
+    private Duration threshold = Duration.ofMillis(200);
+    // Postgres only, select statements are explained once per shape and interval
+    private boolean explain = true;
+    private Duration explainInterval = Duration.ofHours(1);
+    private Duration explainTimeout = Duration.ofSeconds(5);
+    // Shapes past this many share one counter
+    private int maxShapes = 500;
+    // Slow statements waiting for the log, more are dropped
+    private int queueCapacity = 1000;
+}
@@ -0,0 +1,237 @@
+package hexlet.code.component;
+
+import lombok.extern.slf4j.Slf4j;
+import net.datafaker.Faker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+// Generates a production-sized dataset with multi-row INSERTs. Enabled with the "seed" profile, e.g.
+// --spring.profiles.active=development,seed --seed.tasks=1000000
+@Slf4j
+@Component
+@Profile("seed")
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class SyntheticDataSeeder implements ApplicationRunner {
+
+    private static final double UNASSIGNED_SHARE = 0.15;
+    private static final double[] LABEL_COUNT_WEIGHTS = {0.3, 0.4, 0.2, 0.1};
+    private static final int MAX_TASK_AGE_DAYS = 730;
+    private static final int MAX_INDEX = 10_000;
+    // Postgres binds at most 65535 parameters to one statement, a batch with more rows is split across statements
+    private static final int MAX_PARAMETERS = 65_535;
+    private static final int TASK_COLUMNS = 6;
+    private static final String TASK_INSERT =
+            "INSERT INTO tasks (name, description, index, task_status_id, assignee_id, created_at)";
+
+    @Autowired
+    private SeedProperties properties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private Random random;
+    private Faker faker;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        random = new Random(properties.getRandomSeed());
+        faker = new Faker(random);
+        var started = System.nanoTime();
+        // Makes generated emails and label names unique across several runs against the same database
+        var runId = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+        var users = seedUsers(runId);
+        var labels = seedLabels(runId);
+        var tasks = seedTasks();
+
+        log.info("Seeded {} users, {} labels and {} tasks in {} ms",
+                users, labels, tasks, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private int seedUsers(String runId) {
+        var missing = properties.getUsers() - count("users");
+        // One hash shared by all generated users, hashing millions of passwords would dominate the run
+        var encryptedPassword = passwordEncoder.encode(properties.getPassword());
+        var today = Date.valueOf(LocalDate.now());
+        insertRows("INSERT INTO users (email, first_name, last_name, encrypted_password, created_at, updated_at)",
+                6, missing, i -> {
+                    var firstName = faker.name().firstName();
+                    var lastName = faker.name().lastName();
+                    var email = (firstName + "." + lastName + "." + runId + i).toLowerCase()
+                            .replaceAll("[^a-z0-9.]", "") + "@seed.example.com";
+                    return new Object[] {email, firstName, lastName, encryptedPassword, today, today};
+                });
+        return Math.max(missing, 0);
+    }
+
+    private int seedLabels(String runId) {
+        var missing = properties.getLabels() - count("labels");
+        var today = Date.valueOf(LocalDate.now());
+        insertRows("INSERT INTO labels (name, created_at)", 2, missing,
+                i -> new Object[] {faker.hacker().noun() + "-" + runId + i, today});
+        return Math.max(missing, 0);
+    }
+
+    private int seedTasks() {
+        var missing = properties.getTasks() - count("tasks");
+        var statusIds = jdbcTemplate.queryForList("SELECT id FROM task_statuses ORDER BY id", Long.class);
+        var userIds = jdbcTemplate.queryForList("SELECT id FROM users ORDER BY id", Long.class);
+        var labelIds = jdbcTemplate.queryForList("SELECT id FROM labels ORDER BY id", Long.class);
+        if (missing <= 0 || statusIds.isEmpty()) {
+            return 0;
+        }
+        // Shuffled once so that the few popular users and labels are not always the oldest ones
+        Collections.shuffle(userIds, random);
+        Collections.shuffle(labelIds, random);
+        var today = LocalDate.now();
+
+        for (var offset = 0; offset < missing; offset += properties.getBatchSize()) {
+            var size = Math.min(properties.getBatchSize(), missing - offset);
+            var rows = new ArrayList<Object[]>(size);
+            var taskLabels = new ArrayList<List<Long>>(size);
+            for (var i = 0; i < size; i++) {
+                var assigneeId = userIds.isEmpty() || random.nextDouble() < UNASSIGNED_SHARE
+                        ? null : skewedPick(userIds, 2);
+                rows.add(new Object[] {
+                    faker.lorem().sentence(4),
+                    faker.lorem().sentence(12),
+                    (long) random.nextInt(MAX_INDEX) + 1,
+                    skewedPick(statusIds, 1.5),
+                    assigneeId,
+                    Date.valueOf(today.minusDays(random.nextInt(MAX_TASK_AGE_DAYS)))
+                });
+                taskLabels.add(pickLabels(labelIds));
+            }
+            transactionTemplate.executeWithoutResult(status -> insertTasks(rows, taskLabels));
+            if ((offset / properties.getBatchSize()) % 100 == 0) {
+                log.info("Seeded {} of {} tasks", offset + size, missing);
+            }
+        }
+        return missing;
+    }
+
+    private void insertTasks(List<Object[]> rows, List<List<Long>> taskLabels) {
+        var ids = new ArrayList<Long>(rows.size());
+        for (var part : split(rows, TASK_COLUMNS)) {
+            ids.addAll(insertReturningIds(part));
+        }
+
+        var joinRows = new ArrayList<Object[]>();
+        for (var i = 0; i < ids.size(); i++) {
+            for (var labelId : taskLabels.get(i)) {
+                joinRows.add(new Object[] {ids.get(i), labelId});
+            }
+        }
+        insertBatch("INSERT INTO tasks_labels (tasks_id, labels_id)", 2, joinRows);
+    }
+
+    private List<Long> insertReturningIds(List<Object[]> rows) {
+        var sql = multiRowInsert(TASK_INSERT, TASK_COLUMNS, rows.size());
+        var ids = jdbcTemplate.execute(connection -> {
+            var statement = connection.prepareStatement(sql, new String[] {"id"});
+            bind(statement, rows);
+            return statement;
+        }, (PreparedStatement statement) -> {
+            statement.executeUpdate();
+            var generated = new ArrayList<Long>(rows.size());
+            try (var keys = statement.getGeneratedKeys()) {
+                while (keys.next()) {
+                    generated.add(keys.getLong(1));
+                }
+            }
+            return generated;
+        });
+        if (ids == null || ids.size() != rows.size()) {
+            throw new IllegalStateException("Database did not return ids for every inserted task");
+        }
+        return ids;
+    }
+
+    private void insertRows(String insert, int columns, int count, IntFunction<Object[]> generator) {
+        for (var offset = 0; offset < count; offset += properties.getBatchSize()) {
+            var rows = new ArrayList<Object[]>();
+            for (var i = offset; i < Math.min(count, offset + properties.getBatchSize()); i++) {
+                rows.add(generator.apply(i));
+            }
+            transactionTemplate.executeWithoutResult(status -> insertBatch(insert, columns, rows));
+        }
+    }
+
+    private void insertBatch(String insert, int columns, List<Object[]> rows) {
+        for (var part : split(rows, columns)) {
+            jdbcTemplate.update(multiRowInsert(insert, columns, part.size()), statement -> bind(statement, part));
+        }
+    }
+
+    private static List<List<Object[]>> split(List<Object[]> rows, int columns) {
+        var perStatement = MAX_PARAMETERS / columns;
+        var parts = new ArrayList<List<Object[]>>();
+        for (var from = 0; from < rows.size(); from += perStatement) {
+            parts.add(rows.subList(from, Math.min(rows.size(), from + perStatement)));
+        }
+        return parts;
+    }
+
+    private static String multiRowInsert(String insert, int columns, int rows) {
+        var row = "(" + String.join(", ", Collections.nCopies(columns, "?")) + ")";
+        return insert + " VALUES " + String.join(", ", Collections.nCopies(rows, row));
+    }
+
+    private static void bind(PreparedStatement statement, List<Object[]> rows) throws SQLException {
+        var index = 1;
+        for (var row : rows) {
+            for (var value : row) {
+                statement.setObject(index++, value);
+            }
+        }
+    }
+
+    private int count(String table) {
+        var count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+        return count == null ? 0 : count.intValue();
+    }
+
+    // Power-law pick: a small share of the values gets most of the hits, like real assignees and labels
+    private <T> T skewedPick(List<T> values, double skew) {
+        return values.get((int) (values.size() * Math.pow(random.nextDouble(), skew)));
+    }
+
+    private List<Long> pickLabels(List<Long> labelIds) {
+        var roll = random.nextDouble();
+        var count = 0;
+        while (count < LABEL_COUNT_WEIGHTS.length - 1 && roll >= LABEL_COUNT_WEIGHTS[count]) {
+            roll -= LABEL_COUNT_WEIGHTS[count];
+            count++;
+        }
+        var labels = new LinkedHashSet<Long>();
+        for (var attempt = 0; labels.size() < Math.min(count, labelIds.size()) && attempt < count * 3; attempt++) {
+            labels.add(skewedPick(labelIds, 3));
+        }
+        return new ArrayList<>(labels);
+    }
+}
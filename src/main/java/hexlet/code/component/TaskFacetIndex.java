@@ -0,0 +1,213 @@
+package hexlet.code.component;
+
+import hexlet.code.dto.task.TaskDTO;
+import hexlet.code.dto.task.TaskParamsDTO;
+import hexlet.code.event.TaskEvent;
+import hexlet.code.util.TaskFacets;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToLongFunction;
+
+// In-process facet index over status, assignee and labels. It is kept up to date from task events, rebuilt at
+// startup and periodically, to pick up rows written around TasksService. Each node only sees its own events, so
+// with several instances a list can miss changes made elsewhere until the next rebuild; it is off by default.
+// The bitmaps hold int ids, past Integer.MAX_VALUE the index steps aside and lists go to the database
+@Slf4j
+@Component
+public class TaskFacetIndex {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TaskListProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object rebuildMonitor = new Object();
+    private TaskFacets facets;
+    // Events received while a rebuild reads the tables, replayed on the new index
+    private List<TaskEvent> pending;
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("tasks.facet_index.bytes", this, index -> index.read(TaskFacets::sizeInBytes))
+                .description("Serialized size of the facet bitmaps")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("tasks.facet_index.bitmaps", this, index -> index.read(TaskFacets::bitmapCount))
+                .register(meterRegistry);
+        Gauge.builder("tasks.facet_index.tasks", this, index -> index.read(TaskFacets::taskCount))
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (properties.isFacetIndexEnabled()) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(initialDelayString = "#{@taskListProperties.facetIndexRebuildInterval.toMillis()}",
+            fixedDelayString = "#{@taskListProperties.facetIndexRebuildInterval.toMillis()}")
+    public void scheduledRebuild() {
+        if (properties.isFacetIndexEnabled()) {
+            rebuild();
+        }
+    }
+
+    public void rebuild() {
+        synchronized (rebuildMonitor) {
+            var started = System.nanoTime();
+            withWriteLock(() -> pending = new ArrayList<>());
+            TaskFacets fresh;
+            try {
+                fresh = load();
+            } catch (RuntimeException e) {
+                withWriteLock(() -> pending = null);
+                throw e;
+            }
+            if (fresh == null) {
+                withWriteLock(() -> {
+                    pending = null;
+                    facets = null;
+                });
+                log.warn("Facet index disabled: task ids exceed {}", Integer.MAX_VALUE);
+                return;
+            }
+            withWriteLock(() -> {
+                var inRange = pending.stream().allMatch(event -> fitsInt(event.getTaskId()));
+                pending.forEach(event -> apply(fresh, event));
+                pending = null;
+                facets = inRange ? fresh : null;
+            });
+            log.info("Facet index rebuilt: {} tasks, {} bitmaps, {} KiB in {} ms", fresh.taskCount(),
+                    fresh.bitmapCount(), fresh.sizeInBytes() / 1024, (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    // Null when the index is not built or cannot answer the filter, the caller then goes to the database
+    public RoaringBitmap match(TaskParamsDTO params) {
+        if (!properties.isFacetIndexEnabled() || params.hasTitleCont()) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            return facets == null ? null : facets.match(params);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void renameStatus(String from, String to) {
+        withWriteLock(() -> {
+            if (facets != null) {
+                facets.renameStatus(from, to);
+            }
+        });
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTaskChanged(TaskEvent event) {
+        withWriteLock(() -> {
+            if (!fitsInt(event.getTaskId())) {
+                facets = null;
+            } else if (facets != null) {
+                apply(facets, event);
+            }
+            if (pending != null) {
+                pending.add(event);
+            }
+        });
+    }
+
+    private static void apply(TaskFacets target, TaskEvent event) {
+        if (!fitsInt(event.getTaskId())) {
+            return;
+        }
+        var id = event.getTaskId().intValue();
+        switch (event.getType()) {
+            case CREATED -> add(target, id, event.getTask());
+            case UPDATED -> {
+                remove(target, id, event.getPrevious());
+                add(target, id, event.getTask());
+            }
+            case DELETED -> remove(target, id, event.getPrevious());
+            default -> {
+            }
+        }
+    }
+
+    private static void add(TaskFacets target, int id, TaskDTO task) {
+        target.add(id, task.getStatus(), task.getAssigneeId(), task.getTaskLabelIds());
+    }
+
+    private static void remove(TaskFacets target, int id, TaskDTO previous) {
+        if (previous == null) {
+            target.removeEverywhere(id);
+        } else {
+            target.remove(id, previous.getStatus(), previous.getAssigneeId(), previous.getTaskLabelIds());
+        }
+    }
+
+    // Null when the ids do not fit the bitmaps
+    private TaskFacets load() {
+        var maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM tasks", Long.class);
+        if (maxId != null && !fitsInt(maxId)) {
+            return null;
+        }
+        var fresh = new TaskFacets();
+        jdbcTemplate.query("SELECT t.id, s.slug, t.assignee_id FROM tasks t "
+                + "JOIN task_statuses s ON s.id = t.task_status_id", rs -> {
+                    var assigneeId = rs.getLong("assignee_id");
+                    var unassigned = rs.wasNull();
+                    fresh.add(rs.getInt("id"), rs.getString("slug"), unassigned ? null : assigneeId, null);
+                });
+        jdbcTemplate.query("SELECT tasks_id, labels_id FROM tasks_labels", (RowCallbackHandler) rs -> {
+            fresh.addLabel(rs.getInt("tasks_id"), rs.getLong("labels_id"));
+        });
+        fresh.optimize();
+        return fresh;
+    }
+
+    private static boolean fitsInt(Long id) {
+        return id != null && id >= 0 && id <= Integer.MAX_VALUE;
+    }
+
+    private double read(ToLongFunction<TaskFacets> metric) {
+        lock.readLock().lock();
+        try {
+            return facets == null ? 0 : metric.applyAsLong(facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void withWriteLock(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package hexlet.code.component;
+
+import hexlet.code.dto.page.CountMode;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "tasks")
+@Getter
+@Setter
+public class TaskListProperties {
+    private CountMode countMode = CountMode.EXACT;
+    private Duration countCacheTtl = Duration.ofMinutes(5);
+    private int countCacheMaxEntries = 10_000;
+    private int boardColumnSize = 20;
+    private int boardMaxColumnSize = 100;
+    private Duration rankRebalanceInterval = Duration.ofSeconds(30);
+    private boolean facetIndexEnabled = false;
+    private Duration facetIndexRebuildInterval = Duration.ofMinutes(10);
+    private boolean coalesceQueries = true;
+    private Duration coalesceTtl = Duration.ZERO;
+    private boolean searchIndexEnabled = false;
+    // Empty keeps the search index in memory
+    private String searchIndexDir = "";
+    private Duration searchIndexRebuildInterval = Duration.ofMinutes(30);
+    private Duration searchIndexCommitInterval = Duration.ofSeconds(30);
+    private int searchMaxResults = 1000;
+    private Duration statusCacheTtl = Duration.ofMinutes(1);
+}
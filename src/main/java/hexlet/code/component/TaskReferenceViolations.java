@@ -0,0 +1,128 @@
+package hexlet.code.component;
+
+import hexlet.code.exception.BadRequestException;
+import hexlet.code.exception.ResourceNotFoundException;
+import hexlet.code.model.Task;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Tells which reference of a task a failed write pointed nowhere with. Task writes do not read the assignee and the
+// status before, so this is how a missing one shows. The foreign keys of Task are named, a violation reporting one
+// of the names is answered from it. Otherwise, when the dialect does not report the name as declared (H2 cuts its
+// first character) or the schema predates the names, the referenced rows are looked up
+@Component
+public class TaskReferenceViolations {
+
+    // The SQL standard state of a foreign key violation, and the one H2 reports for a missing parent row
+    private static final Set<String> FOREIGN_KEY_STATES = Set.of("23503", "23506");
+
+    private static final Map<String, Reference> FOREIGN_KEYS = Map.of(
+            Task.ASSIGNEE_FOREIGN_KEY, Reference.ASSIGNEE,
+            Task.STATUS_FOREIGN_KEY, Reference.STATUS,
+            Task.LABELS_LABEL_FOREIGN_KEY, Reference.LABEL,
+            Task.LABELS_TASK_FOREIGN_KEY, Reference.TASK);
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TaskStatusCache taskStatusCache;
+
+    private TransactionTemplate lookupTransaction;
+
+    @PostConstruct
+    public void init() {
+        // The failed write may have aborted the transaction it ran in
+        lookupTransaction = new TransactionTemplate(transactionManager);
+        lookupTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        lookupTransaction.setReadOnly(true);
+    }
+
+    // The violation itself when it is not about a foreign key
+    public RuntimeException toException(DataIntegrityViolationException e, Long assigneeId, Long statusId) {
+        var violation = violation(e);
+        if (violation == null) {
+            return e;
+        }
+        var reference = referenceOf(violation.getConstraintName());
+        if (reference == null) {
+            if (!FOREIGN_KEY_STATES.contains(violation.getSQLState())) {
+                return e;
+            }
+            reference = lookupTransaction.execute(status -> missing(assigneeId, statusId));
+        }
+        return switch (reference) {
+            case ASSIGNEE -> new ResourceNotFoundException("User with id " + assigneeId + " not found");
+            case STATUS -> {
+                // Removed since it was cached
+                taskStatusCache.invalidate();
+                yield new ResourceNotFoundException("Task status with id " + statusId + " not found");
+            }
+            case LABEL -> new ResourceNotFoundException("A label of the task was not found");
+            default -> new BadRequestException("The task references a missing resource");
+        };
+    }
+
+    // Writes through the entity manager fail with the violation already converted, plain JDBC writes with the
+    // driver's exception, which goes through the same conversion
+    private ConstraintViolationException violation(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return violation;
+            }
+            if (cause instanceof SQLException sqlException) {
+                var converted = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices()
+                        .getSqlExceptionHelper().convert(sqlException, "Write to task tables");
+                return converted instanceof ConstraintViolationException violation ? violation : null;
+            }
+        }
+        return null;
+    }
+
+    // Some dialects qualify the name with the schema, keep its quotes or fold its case
+    private static Reference referenceOf(String constraintName) {
+        if (constraintName == null) {
+            return null;
+        }
+        var name = constraintName.replace("\"", "");
+        return FOREIGN_KEYS.get(name.substring(name.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT));
+    }
+
+    // Both references in one read
+    private Reference missing(Long assigneeId, Long statusId) {
+        return jdbcTemplate.queryForObject("SELECT (SELECT COUNT(*) FROM users WHERE id = ?) AS assignees, "
+                + "(SELECT COUNT(*) FROM task_statuses WHERE id = ?) AS statuses", (rs, rowNum) -> {
+                    if (assigneeId != null && rs.getLong("assignees") == 0) {
+                        return Reference.ASSIGNEE;
+                    }
+                    if (statusId != null && rs.getLong("statuses") == 0) {
+                        return Reference.STATUS;
+                    }
+                    return Reference.UNKNOWN;
+                }, assigneeId, statusId);
+    }
+
+    private enum Reference {
+        ASSIGNEE, STATUS, LABEL, TASK, UNKNOWN
+    }
+}
@@ -0,0 +1,411 @@
+package hexlet.code.component;
+
+import hexlet.code.dto.task.LabelMatch;
+import hexlet.code.dto.task.TaskParamsDTO;
+import hexlet.code.event.TaskEvent;
+import hexlet.code.exception.BadRequestException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermInSetQuery;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Full-text index over task titles and descriptions, with status, assignee and labels indexed for filtering.
+// Like the facet index it follows committed task events and is rebuilt at startup and periodically. On disk
+// the last committed index answers searches while the startup rebuild runs. The events are those of this node,
+// so with several nodes a search misses the changes made elsewhere until the next rebuild
+@Slf4j
+@Component
+public class TaskSearchIndex {
+
+    private static final String ID = "id";
+    private static final String TITLE = "title";
+    private static final String CONTENT = "content";
+    private static final String STATUS = "status";
+    private static final String ASSIGNEE = "assignee";
+    private static final String LABEL = "label";
+    private static final Map<String, Float> BOOSTS = Map.of(TITLE, 2f, CONTENT, 1f);
+    private static final String TASKS = "SELECT t.id, t.name, t.description, t.assignee_id, s.slug FROM tasks t "
+            + "JOIN task_statuses s ON s.id = t.task_status_id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TaskListProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+    // Guards the writer, so that a rebuild or a commit never interleaves with single task changes
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Object rebuildMonitor = new Object();
+    // Changes are made visible to searches lazily, by the first search after them
+    private final AtomicBoolean changed = new AtomicBoolean();
+    private Directory directory;
+    private volatile IndexWriter writer;
+    private volatile SearcherManager searcherManager;
+    private Timer searchTimer;
+    private Timer rebuildTimer;
+    // Events received while a rebuild reads the tables, replayed after it
+    private List<TaskEvent> pending;
+
+    public record Hits(List<Long> ids, long total) {
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!properties.isSearchIndexEnabled()) {
+            return;
+        }
+        var location = properties.getSearchIndexDir();
+        directory = location == null || location.isBlank()
+                ? new ByteBuffersDirectory()
+                : FSDirectory.open(Path.of(location));
+        openWriter();
+
+        Gauge.builder("tasks.search_index.bytes", this, TaskSearchIndex::sizeInBytes)
+                .description("Size of the index files")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("tasks.search_index.documents", this, index -> index.writer.getDocStats().numDocs)
+                .register(meterRegistry);
+        searchTimer = Timer.builder("tasks.search")
+                .description("Full-text search time in the index, without loading the tasks")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        rebuildTimer = Timer.builder("tasks.search_index.rebuild").register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (writer != null) {
+            searcherManager.close();
+            writer.close();
+            directory.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return writer != null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (isEnabled()) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(initialDelayString = "#{@taskListProperties.searchIndexRebuildInterval.toMillis()}",
+            fixedDelayString = "#{@taskListProperties.searchIndexRebuildInterval.toMillis()}")
+    public void scheduledRebuild() {
+        if (isEnabled()) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(initialDelayString = "#{@taskListProperties.searchIndexCommitInterval.toMillis()}",
+            fixedDelayString = "#{@taskListProperties.searchIndexCommitInterval.toMillis()}")
+    public void commit() {
+        if (!isEnabled()) {
+            return;
+        }
+        withLock(() -> {
+            if (pending == null && writer.hasUncommittedChanges()) {
+                writer.commit();
+            }
+        });
+    }
+
+    // Returns the number of indexed tasks
+    public long rebuild() {
+        synchronized (rebuildMonitor) {
+            var started = System.nanoTime();
+            // Committed first, a failed rebuild rolls back to exactly this state
+            withLock(() -> {
+                writer.commit();
+                pending = new ArrayList<>();
+            });
+            long count;
+            try {
+                writer.deleteAll();
+                count = load(null, null);
+            } catch (IOException | RuntimeException e) {
+                withLock(() -> {
+                    // Searches move to the new manager before the old one is closed
+                    var stale = searcherManager;
+                    writer.rollback();
+                    openWriter();
+                    stale.close();
+                    replayPending();
+                });
+                changed.set(true);
+                throw e instanceof IOException io ? new UncheckedIOException(io) : (RuntimeException) e;
+            }
+            withLock(() -> {
+                replayPending();
+                writer.commit();
+            });
+            changed.set(true);
+            rebuildTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            log.info("Search index rebuilt: {} tasks, {} KiB in {} ms", count, (long) sizeInBytes() / 1024,
+                    (System.nanoTime() - started) / 1_000_000);
+            return count;
+        }
+    }
+
+    // A renamed status changes the indexed slug of its tasks, they are indexed again
+    public void renameStatus(String to) {
+        if (!isEnabled()) {
+            return;
+        }
+        withLock(() -> load("s.slug = ?", to));
+        changed.set(true);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTaskChanged(TaskEvent event) {
+        if (!isEnabled()) {
+            return;
+        }
+        withLock(() -> {
+            if (pending != null) {
+                pending.add(event);
+            } else {
+                apply(event);
+            }
+        });
+        changed.set(true);
+    }
+
+    // Ranked by relevance, then by index order. The text uses the classic query syntax: words, "phrases",
+    // title:word, -word, prefix*
+    public Hits search(String text, TaskParamsDTO params, int offset, int limit) {
+        var query = query(text, params);
+        var started = System.nanoTime();
+        try {
+            if (changed.getAndSet(false)) {
+                refresh();
+            }
+            var manager = searcherManager;
+            IndexSearcher searcher;
+            try {
+                searcher = manager.acquire();
+            } catch (AlreadyClosedException e) {
+                // Closed by a failed rebuild after this search picked it up
+                manager = searcherManager;
+                searcher = manager.acquire();
+            }
+            try {
+                var top = searcher.search(query, offset + limit);
+                var total = top.totalHits.relation == TotalHits.Relation.EQUAL_TO
+                        ? top.totalHits.value
+                        : searcher.count(query);
+                var storedFields = searcher.storedFields();
+                var ids = new ArrayList<Long>();
+                for (var i = offset; i < top.scoreDocs.length; i++) {
+                    ids.add(Long.valueOf(storedFields.document(top.scoreDocs[i].doc).get(ID)));
+                }
+                return new Hits(ids, total);
+            } finally {
+                manager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Search failed", e);
+        } finally {
+            searchTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // A rebuild in progress has deleted everything in the writer, the searches stay on the previous reader
+    private void refresh() {
+        withLock(() -> {
+            if (pending == null) {
+                searcherManager.maybeRefreshBlocking();
+            } else {
+                changed.set(true);
+            }
+        });
+    }
+
+    private Query query(String text, TaskParamsDTO params) {
+        var parser = new MultiFieldQueryParser(new String[] {TITLE, CONTENT}, analyzer, BOOSTS);
+        parser.setDefaultOperator(QueryParser.Operator.AND);
+        var builder = new BooleanQuery.Builder();
+        try {
+            builder.add(parser.parse(text), BooleanClause.Occur.MUST);
+        } catch (ParseException e) {
+            throw new BadRequestException("Invalid search query: " + e.getMessage());
+        }
+
+        var statuses = params.collectStatuses();
+        if (!statuses.isEmpty()) {
+            var terms = statuses.stream().map(BytesRef::new).toList();
+            builder.add(new TermInSetQuery(STATUS, terms), BooleanClause.Occur.FILTER);
+        }
+        var assigneeIds = params.collectAssigneeIds();
+        if (!assigneeIds.isEmpty()) {
+            builder.add(LongPoint.newSetQuery(ASSIGNEE, assigneeIds), BooleanClause.Occur.FILTER);
+        }
+        var labelIds = params.collectLabelIds();
+        if (!labelIds.isEmpty() && params.getLabelMatch() == LabelMatch.ALL) {
+            labelIds.forEach(id -> builder.add(LongPoint.newExactQuery(LABEL, id), BooleanClause.Occur.FILTER));
+        } else if (!labelIds.isEmpty()) {
+            builder.add(LongPoint.newSetQuery(LABEL, labelIds), BooleanClause.Occur.FILTER);
+        }
+        return builder.build();
+    }
+
+    private void openWriter() throws IOException {
+        writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        searcherManager = new SearcherManager(writer, null);
+    }
+
+    private void replayPending() throws IOException {
+        for (var event : pending) {
+            apply(event);
+        }
+        pending = null;
+    }
+
+    private void apply(TaskEvent event) throws IOException {
+        var id = new Term(ID, event.getTaskId().toString());
+        switch (event.getType()) {
+            case CREATED, UPDATED -> {
+                var task = event.getTask();
+                writer.updateDocument(id, document(task.getId(), task.getTitle(), task.getContent(),
+                        task.getStatus(), task.getAssigneeId(), task.getTaskLabelIds()));
+            }
+            case DELETED -> writer.deleteDocuments(id);
+            default -> {
+            }
+        }
+    }
+
+    // Labels first, so that the tasks can be streamed into the writer
+    private long load(String condition, Object arg) throws IOException {
+        var where = condition == null ? "" : " WHERE " + condition;
+        var args = condition == null ? new Object[0] : new Object[] {arg};
+        var labels = new HashMap<Long, List<Long>>();
+        jdbcTemplate.query("SELECT tl.tasks_id, tl.labels_id FROM tasks_labels tl JOIN tasks t ON t.id = tl.tasks_id "
+                + "JOIN task_statuses s ON s.id = t.task_status_id" + where, (RowCallbackHandler) rs -> {
+                    labels.computeIfAbsent(rs.getLong("tasks_id"), key -> new ArrayList<>())
+                            .add(rs.getLong("labels_id"));
+                }, args);
+        var count = new long[1];
+        jdbcTemplate.query(TASKS + where, (RowCallbackHandler) rs -> {
+            var id = rs.getLong("id");
+            var assigneeId = rs.getLong("assignee_id");
+            var document = document(id, rs.getString("name"), rs.getString("description"), rs.getString("slug"),
+                    rs.wasNull() ? null : assigneeId, labels.getOrDefault(id, List.of()));
+            try {
+                writer.updateDocument(new Term(ID, Long.toString(id)), document);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            count[0]++;
+        }, args);
+        return count[0];
+    }
+
+    private static Document document(long id, String title, String content, String status, Long assigneeId,
+            Collection<Long> labelIds) {
+        var document = new Document();
+        document.add(new StringField(ID, Long.toString(id), Field.Store.YES));
+        if (title != null) {
+            document.add(new TextField(TITLE, title, Field.Store.NO));
+        }
+        if (content != null) {
+            document.add(new TextField(CONTENT, content, Field.Store.NO));
+        }
+        if (status != null) {
+            document.add(new StringField(STATUS, status.toLowerCase(), Field.Store.NO));
+        }
+        if (assigneeId != null) {
+            document.add(new LongPoint(ASSIGNEE, assigneeId));
+        }
+        if (labelIds != null) {
+            labelIds.forEach(labelId -> document.add(new LongPoint(LABEL, labelId)));
+        }
+        return document;
+    }
+
+    private double sizeInBytes() {
+        try {
+            var size = 0L;
+            for (var file : directory.listAll()) {
+                size += directory.fileLength(file);
+            }
+            return size;
+        } catch (IOException e) {
+            // Merges delete files while they are listed, the next reading will do
+            return Double.NaN;
+        }
+    }
+
+    private void withLock(IndexAction action) {
+        lock.lock();
+        try {
+            action.run();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @FunctionalInterface
+    private interface IndexAction {
+        void run() throws IOException;
+    }
+}
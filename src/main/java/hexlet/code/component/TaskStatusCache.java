@@ -0,0 +1,68 @@
+package hexlet.code.component;
+
+import hexlet.code.exception.ResourceNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Ids and slugs of the task statuses, so that task writes address a status without reading it. A slug that is not
+// known reloads the table once. Changes made through this node drop the cache, changes on other nodes show after
+// tasks.status-cache-ttl
+@Component
+public class TaskStatusCache {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TaskListProperties properties;
+
+    private volatile Snapshot snapshot;
+
+    public long idOf(String slug) {
+        var current = snapshot;
+        var fresh = current == null || System.nanoTime() - current.loadedAt() > properties.getStatusCacheTtl()
+                .toNanos();
+        if (fresh) {
+            current = reload();
+        }
+        var id = current.ids().get(slug);
+        if (id == null && !fresh) {
+            id = reload().ids().get(slug);
+        }
+        if (id == null) {
+            throw new ResourceNotFoundException("Slug " + slug + " not found");
+        }
+        return id;
+    }
+
+    // Null when the id is not cached
+    public String slugOf(long id) {
+        var current = snapshot;
+        return current != null ? current.slugs().get(id) : null;
+    }
+
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    private Snapshot reload() {
+        var ids = new HashMap<String, Long>();
+        var slugs = new HashMap<Long, String>();
+        var loadedAt = System.nanoTime();
+        jdbcTemplate.query("SELECT id, slug FROM task_statuses", (RowCallbackHandler) rs -> {
+            ids.put(rs.getString("slug"), rs.getLong("id"));
+            slugs.put(rs.getLong("id"), rs.getString("slug"));
+        });
+        var loaded = new Snapshot(Map.copyOf(ids), Map.copyOf(slugs), loadedAt);
+        snapshot = loaded;
+        return loaded;
+    }
+
+    private record Snapshot(Map<String, Long> ids, Map<Long, String> slugs, long loadedAt) {
+    }
+}
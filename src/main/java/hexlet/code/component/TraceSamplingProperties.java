@@ -0,0 +1,32 @@
+package hexlet.code.component;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "trace-sampling")
+@Getter
+@Setter
+public class TraceSamplingProperties {
+    private double baseRate = 0.05;
+    private boolean keepErrors = true;
+    // Null keeps no transaction for its duration alone
+    private Duration slowThreshold = Duration.ofSeconds(1);
+    // Zero or less is no cap
+    private long maxSpansPerSecond = 200;
+    private List<Endpoint> endpoints = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Endpoint {
+        private String path;
+        private String method;
+        private double rate;
+    }
+}
@@ -0,0 +1,19 @@
+package hexlet.code.component;
+
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+@Component
+@ConfigurationProperties(prefix = "users.import")
+@Validated
+@Getter
+@Setter
+public class UserImportProperties {
+    // Rows validated, hashed and inserted together, each chunk is committed on its own
+    @Positive
+    private int chunkSize = 500;
+}
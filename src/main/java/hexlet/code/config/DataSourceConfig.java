@@ -0,0 +1,47 @@
+package hexlet.code.config;
+
+import hexlet.code.component.SlowQueryLog;
+import hexlet.code.component.SlowQueryProperties;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class DataSourceConfig {
+
+    // Passes every statement of the data source to the query listeners, the slow-query log and whatever tests
+    // add. Static, the post processor is created before the other beans and looks its dependencies up only once
+    // the data source exists
+    @Bean
+    public static BeanPostProcessor queryListenerDataSourcePostProcessor(
+            ObjectProvider<SlowQueryProperties> properties, ObjectProvider<QueryExecutionListener> listeners) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                var enabled = listeners.orderedStream()
+                        .filter(listener -> !(listener instanceof SlowQueryLog) || properties.getObject().isEnabled())
+                        .toList();
+                if (enabled.isEmpty()) {
+                    return bean;
+                }
+                var builder = ProxyDataSourceBuilder.create(dataSource).name(beanName);
+                for (var listener : enabled) {
+                    if (listener instanceof SlowQueryLog slowQueryLog) {
+                        slowQueryLog.setDataSource(dataSource);
+                    }
+                    builder.listener(listener);
+                }
+                return builder.build();
+            }
+        };
+    }
+}
@@ -1,11 +1,8 @@
 package hexlet.code.config;
 
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
-import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
-import com.nimbusds.jose.jwk.source.JWKSource;
-import com.nimbusds.jose.proc.SecurityContext;
-import hexlet.code.component.RsaKeyProperties;
+import hexlet.code.component.JwtKeys;
+import hexlet.code.util.JwsDecoders;
+import hexlet.code.util.JwsEncoder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -14,15 +11,11 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
 
-import com.nimbusds.jose.jwk.JWK;
-import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
-import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
-
 @Configuration
 public class EncodersConfig {
 
     @Autowired
-    private RsaKeyProperties rsaKeys;
+    private JwtKeys jwtKeys;
 
     @Bean
     public PasswordEncoder passwordEncoder() {
@@ -31,14 +24,12 @@ public class EncodersConfig {
 
     @Bean
     JwtEncoder jwtEncoder() {
-        JWK jwk = new RSAKey.Builder(rsaKeys.getPublicKey()).privateKey(rsaKeys.getPrivateKey()).build();
-        JWKSource<SecurityContext> jwks = new ImmutableJWKSet<>(new JWKSet(jwk));
-        return new NimbusJwtEncoder(jwks);
+        return new JwsEncoder(jwtKeys::getSigningKey);
     }
 
     @Bean
     JwtDecoder jwtDecoder() {
-        return NimbusJwtDecoder.withPublicKey(rsaKeys.getPublicKey()).build();
+        return JwsDecoders.of(jwtKeys::getVerificationKeys);
     }
 
 }
@@ -2,7 +2,9 @@ package hexlet.code.config;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
 import org.openapitools.jackson.nullable.JsonNullableModule;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
@@ -10,13 +12,25 @@ import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 @Configuration
 public class JacksonConfig {
 
+    @Value("${json.blackbird:true}")
+    private boolean blackbird;
+
     @Bean
     Jackson2ObjectMapperBuilder objectMapperBuilder() {
+        return builder(blackbird);
+    }
+
+    // Dates are java.time values written as ISO strings by the JavaTimeModule, which Spring registers on its own.
+    // Blackbird replaces reflective getter calls with generated lambdas. Also used by the serialization benchmark
+    public static Jackson2ObjectMapperBuilder builder(boolean blackbird) {
         var builder = new Jackson2ObjectMapperBuilder();
         builder.serializationInclusion(JsonInclude.Include.NON_NULL)
-                .modulesToInstall(new JsonNullableModule())
-                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
-                .simpleDateFormat("yyyy-MM-dd");
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if (blackbird) {
+            builder.modulesToInstall(new JsonNullableModule(), new BlackbirdModule());
+        } else {
+            builder.modulesToInstall(new JsonNullableModule());
+        }
         return builder;
     }
 }
@@ -0,0 +1,68 @@
+package hexlet.code.config;
+
+import hexlet.code.dto.page.CountMode;
+import hexlet.code.dto.page.PageParamsDTO;
+import hexlet.code.exception.BadRequestException;
+import org.springframework.core.MethodParameter;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+// Reads json-server style _start/_end/_sort/_order as well as simple-rest style range=[0,9]/sort=["id","ASC"]
+public class PageParamsArgumentResolver implements HandlerMethodArgumentResolver {
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return PageParamsDTO.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        var params = new PageParamsDTO();
+        params.setStart(parseInt(webRequest.getParameter("_start")));
+        params.setEnd(parseInt(webRequest.getParameter("_end")));
+        params.setSort(webRequest.getParameter("_sort"));
+        params.setOrder(webRequest.getParameter("_order"));
+
+        var range = split(webRequest.getParameter("range"));
+        if (range != null && range.length == 2) {
+            params.setStart(parseInt(range[0]));
+            params.setEnd(parseInt(range[1]) + 1);
+        }
+        var sort = split(webRequest.getParameter("sort"));
+        if (sort != null && sort.length == 2) {
+            params.setSort(sort[0]);
+            params.setOrder(sort[1]);
+        }
+
+        var count = webRequest.getParameter("_count");
+        if (count != null) {
+            try {
+                params.setCount(CountMode.valueOf(count.toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Unknown count mode " + count);
+            }
+        }
+        return params;
+    }
+
+    private static String[] split(String value) {
+        if (value == null) {
+            return null;
+        }
+        return value.replaceAll("[\\[\\]\"\\s]", "").split(",");
+    }
+
+    private static Integer parseInt(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid number " + value);
+        }
+    }
+}
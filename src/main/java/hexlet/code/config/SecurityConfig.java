@@ -1,5 +1,7 @@
 package hexlet.code.config;
 
+import hexlet.code.component.RateLimitProperties;
+import hexlet.code.filter.RateLimitFilter;
 import hexlet.code.service.CustomUserDetailsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
@@ -15,6 +17,7 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
 import org.springframework.web.servlet.handler.HandlerMappingIntrospector;
 
 @Configuration
@@ -30,12 +33,21 @@ public class SecurityConfig {
     @Autowired
     private CustomUserDetailsService userService;
 
+    @Autowired
+    private RateLimitProperties rateLimitProperties;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http, HandlerMappingIntrospector introspector)
             throws Exception {
+        if (rateLimitProperties.isEnabled()) {
+            // Runs after authorization so that limits can be keyed by the authenticated subject
+            http.addFilterAfter(new RateLimitFilter(rateLimitProperties), AuthorizationFilter.class);
+        }
         return http.csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/login").permitAll()
+                        .requestMatchers("/api/login/refresh").permitAll()
+                        .requestMatchers("/.well-known/jwks.json").permitAll()
                         .requestMatchers("/sentry").permitAll()
                         .requestMatchers("/").permitAll()
                         .requestMatchers("/index.html").permitAll()
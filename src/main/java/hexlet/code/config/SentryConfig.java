@@ -0,0 +1,24 @@
+package hexlet.code.config;
+
+import hexlet.code.component.TraceSamplingProperties;
+import hexlet.code.util.TraceSampler;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class SentryConfig {
+
+    @Autowired
+    private TraceSamplingProperties traceSamplingProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // The Sentry auto-configuration installs it both as traces sampler and as before-send-transaction callback
+    @Bean
+    public TraceSampler traceSampler() {
+        return new TraceSampler(traceSamplingProperties, meterRegistry);
+    }
+}
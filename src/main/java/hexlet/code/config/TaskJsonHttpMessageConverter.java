@@ -0,0 +1,81 @@
+package hexlet.code.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import hexlet.code.dto.task.TaskBoardColumnDTO;
+import hexlet.code.dto.task.TaskDTO;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+
+// Writes the large task responses, lists of tasks and board columns, with writers resolved once at startup
+// instead of per request as MappingJackson2HttpMessageConverter does. Other types and media types are left to the
+// converters after it
+public class TaskJsonHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    private final Map<Class<?>, ObjectWriter> writers;
+
+    public TaskJsonHttpMessageConverter(ObjectMapper om) {
+        super(MediaType.APPLICATION_JSON);
+        this.writers = Map.of(
+                TaskDTO.class, writerFor(om, TaskDTO.class),
+                TaskBoardColumnDTO.class, writerFor(om, TaskBoardColumnDTO.class));
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return clazz != null && List.class.isAssignableFrom(clazz) && writerFor(type) != null && canWrite(mediaType);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        // Only the generic type tells the lists apart, see canWrite
+        return false;
+    }
+
+    @Override
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        writerFor(type).writeValue(outputMessage.getBody(), value);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Task responses are not read", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Task responses are not read", inputMessage);
+    }
+
+    private ObjectWriter writerFor(Type type) {
+        if (type == null) {
+            return null;
+        }
+        var resolved = ResolvableType.forType(type);
+        if (!List.class.equals(resolved.resolve())) {
+            return null;
+        }
+        return writers.get(resolved.getGeneric(0).resolve());
+    }
+
+    private static ObjectWriter writerFor(ObjectMapper om, Class<?> elementType) {
+        var listType = om.getTypeFactory().constructCollectionType(List.class, elementType);
+        // The container closes the stream at the end of the request
+        return om.writerFor(listType).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+}
@@ -0,0 +1,29 @@
+package hexlet.code.controller;
+
+import hexlet.code.component.JwtKeyProperties;
+import hexlet.code.component.JwtKeys;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+// Public keys of this node, other services can verify our tokens with them
+@RestController
+public class JwksController {
+
+    @Autowired
+    private JwtKeys jwtKeys;
+
+    @Autowired
+    private JwtKeyProperties properties;
+
+    @GetMapping(path = "/.well-known/jwks.json", produces = "application/jwk-set+json")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(properties.getJwksMaxAge()).cachePublic())
+                .body(jwtKeys.getPublicJwks().toJSONObject(true));
+    }
+}
@@ -1,8 +1,13 @@
 package hexlet.code.controller.api;
 
 import hexlet.code.dto.auth.AuthRequest;
+import hexlet.code.dto.auth.AuthResponse;
+import hexlet.code.dto.auth.RefreshRequest;
+import hexlet.code.model.User;
+import hexlet.code.service.RefreshTokenService;
 import hexlet.code.util.JWTUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -14,21 +19,35 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/api")
 public class AuthController {
 
+    public static final String REFRESH_TOKEN_HEADER = "X-Refresh-Token";
+
     @Autowired
     private JWTUtils jwtUtils;
 
     @Autowired
     private AuthenticationManager authenticationManager;
 
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    // The body stays the bare access token that the bundled client expects, the refresh token goes in a header
     @PostMapping("/login")
-    public String create(@RequestBody AuthRequest authRequest) {
+    public ResponseEntity<String> create(@RequestBody AuthRequest authRequest) {
         var authentication = new UsernamePasswordAuthenticationToken(
                 authRequest.getUsername(), authRequest.getPassword());
 
-        authenticationManager.authenticate(authentication);
+        var user = (User) authenticationManager.authenticate(authentication).getPrincipal();
 
         var token = jwtUtils.generateToken(authRequest.getUsername());
-        return token;
+        return ResponseEntity.ok()
+                .header(REFRESH_TOKEN_HEADER, refreshTokenService.issue(user.getId()))
+                .body(token);
+    }
+
+    @PostMapping("/login/refresh")
+    public AuthResponse refresh(@RequestBody RefreshRequest refreshRequest) {
+        var renewal = refreshTokenService.renew(refreshRequest.getRefreshToken());
+        return new AuthResponse(jwtUtils.generateToken(renewal.subject()), renewal.refreshToken());
     }
 
 }
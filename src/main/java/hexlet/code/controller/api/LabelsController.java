@@ -1,12 +1,16 @@
 package hexlet.code.controller.api;
 
 import hexlet.code.dto.label.LabelInputDTO;
+import hexlet.code.dto.page.PageParamsDTO;
 import hexlet.code.dto.label.LabelDTO;
 import hexlet.code.exception.ResourceNotFoundException;
 import hexlet.code.mapper.LabelMapper;
 import hexlet.code.repository.LabelRepository;
+import hexlet.code.util.EntityTags;
+import hexlet.code.util.OffsetPageRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -15,16 +19,24 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/labels")
 public class LabelsController {
 
+    private static final Map<String, String> SORTABLE_FIELDS = Map.of(
+            "id", "id",
+            "name", "name",
+            "createdAt", "createdAt"
+    );
+
     @Autowired
     private LabelRepository labelRepository;
 
@@ -32,13 +44,11 @@ public class LabelsController {
     private LabelMapper labelMapper;
 
     @GetMapping("")
-    public ResponseEntity<List<LabelDTO>> index() {
-        var labelDTOs = labelRepository.findAll().stream()
-                .map(labelMapper::map)
-                .toList();
+    public ResponseEntity<List<LabelDTO>> index(PageParamsDTO page) {
+        var labels = labelRepository.findAll(OffsetPageRequest.of(page, SORTABLE_FIELDS));
         return ResponseEntity.ok()
-                .header("X-Total-Count", String.valueOf(labelDTOs.size()))
-                .body(labelDTOs);
+                .header("X-Total-Count", String.valueOf(labels.getTotalElements()))
+                .body(labels.map(labelMapper::map).getContent());
     }
 
     @PostMapping("")
@@ -51,24 +61,37 @@ public class LabelsController {
 
 
     @GetMapping("/{id}")
-    public LabelDTO show(@PathVariable Long id) {
+    public ResponseEntity<LabelDTO> show(@PathVariable Long id) {
         var label = labelRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Label with id " + id + " not found"));
-        return labelMapper.map(label);
+        var dto = labelMapper.map(label);
+        return ResponseEntity.ok().eTag(EntityTags.of(dto.getVersion())).body(dto);
     }
 
     @PutMapping("/{id}")
-    public LabelDTO update(@Valid @RequestBody LabelInputDTO dto, @PathVariable Long id) {
+    public ResponseEntity<LabelDTO> update(@Valid @RequestBody LabelInputDTO dto, @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         var label = labelRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Label with id " + id + " not found"));
+        EntityTags.check(EntityTags.parseIfMatch(ifMatch), label.getVersion(), "Label " + id);
         labelMapper.update(dto, label);
         labelRepository.save(label);
-        return labelMapper.map(label);
+        var labelDTO = labelMapper.map(label);
+        return ResponseEntity.ok().eTag(EntityTags.of(labelDTO.getVersion())).body(labelDTO);
     }
 
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void delete(@PathVariable Long id) {
-        labelRepository.deleteById(id);
+    public void delete(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        var expectedVersion = EntityTags.parseIfMatch(ifMatch);
+        if (expectedVersion == null) {
+            labelRepository.deleteById(id);
+            return;
+        }
+        labelRepository.findById(id).ifPresent(label -> {
+            EntityTags.check(expectedVersion, label.getVersion(), "Label " + id);
+            labelRepository.delete(label);
+        });
     }
 }
@@ -1,13 +1,20 @@
 package hexlet.code.controller.api;
 
+import hexlet.code.component.TaskFacetIndex;
+import hexlet.code.component.TaskSearchIndex;
+import hexlet.code.component.TaskStatusCache;
+import hexlet.code.dto.page.PageParamsDTO;
 import hexlet.code.dto.task_status.TaskStatusCreateDTO;
 import hexlet.code.dto.task_status.TaskStatusDTO;
 import hexlet.code.dto.task_status.TaskStatusUpdateDTO;
 import hexlet.code.exception.ResourceNotFoundException;
 import hexlet.code.mapper.TaskStatusMapper;
 import hexlet.code.repository.TaskStatusRepository;
+import hexlet.code.util.EntityTags;
+import hexlet.code.util.OffsetPageRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -16,31 +23,46 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/task_statuses")
 public class TaskStatusesController {
 
+    private static final Map<String, String> SORTABLE_FIELDS = Map.of(
+            "id", "id",
+            "name", "name",
+            "slug", "slug",
+            "createdAt", "createdAt"
+    );
+
     @Autowired
     private TaskStatusRepository taskStatusRepository;
 
     @Autowired
     private TaskStatusMapper taskStatusMapper;
 
+    @Autowired
+    private TaskFacetIndex taskFacetIndex;
+
+    @Autowired
+    private TaskSearchIndex taskSearchIndex;
+
+    @Autowired
+    private TaskStatusCache taskStatusCache;
+
     @GetMapping("")
-    public ResponseEntity<List<TaskStatusDTO>> index() {
-        var taskStatusesDTO = taskStatusRepository.findAll()
-                .stream()
-                .map(taskStatusMapper::map)
-                .toList();
+    public ResponseEntity<List<TaskStatusDTO>> index(PageParamsDTO page) {
+        var taskStatuses = taskStatusRepository.findAll(OffsetPageRequest.of(page, SORTABLE_FIELDS));
         return ResponseEntity.ok()
-                .header("X-Total-Count", String.valueOf(taskStatusesDTO.size()))
-                .body(taskStatusesDTO);
+                .header("X-Total-Count", String.valueOf(taskStatuses.getTotalElements()))
+                .body(taskStatuses.map(taskStatusMapper::map).getContent());
     }
 
     @PostMapping("")
@@ -52,24 +74,44 @@ public class TaskStatusesController {
     }
 
     @GetMapping("/{id}")
-    public TaskStatusDTO show(@PathVariable Long id) {
+    public ResponseEntity<TaskStatusDTO> show(@PathVariable Long id) {
         var taskStatus = taskStatusRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Task status with id " + id + " not found"));
-        return taskStatusMapper.map(taskStatus);
+        var dto = taskStatusMapper.map(taskStatus);
+        return ResponseEntity.ok().eTag(EntityTags.of(dto.getVersion())).body(dto);
     }
 
     @PutMapping("/{id}")
-    public TaskStatusDTO update(@Valid @RequestBody TaskStatusUpdateDTO data, @PathVariable Long id) {
+    public ResponseEntity<TaskStatusDTO> update(@Valid @RequestBody TaskStatusUpdateDTO data, @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         var taskStatus = taskStatusRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Task status with id " + id + " not found"));
+        EntityTags.check(EntityTags.parseIfMatch(ifMatch), taskStatus.getVersion(), "Task status " + id);
+        var previousSlug = taskStatus.getSlug();
         taskStatusMapper.update(data, taskStatus);
         taskStatusRepository.save(taskStatus);
-        return taskStatusMapper.map(taskStatus);
+        if (!previousSlug.equals(taskStatus.getSlug())) {
+            taskFacetIndex.renameStatus(previousSlug, taskStatus.getSlug());
+            taskSearchIndex.renameStatus(taskStatus.getSlug());
+            taskStatusCache.invalidate();
+        }
+        var dto = taskStatusMapper.map(taskStatus);
+        return ResponseEntity.ok().eTag(EntityTags.of(dto.getVersion())).body(dto);
     }
 
     @DeleteMapping("{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void delete(@PathVariable Long id) {
-        taskStatusRepository.deleteById(id);
+    public void delete(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        var expectedVersion = EntityTags.parseIfMatch(ifMatch);
+        if (expectedVersion == null) {
+            taskStatusRepository.deleteById(id);
+        } else {
+            taskStatusRepository.findById(id).ifPresent(taskStatus -> {
+                EntityTags.check(expectedVersion, taskStatus.getVersion(), "Task status " + id);
+                taskStatusRepository.delete(taskStatus);
+            });
+        }
+        taskStatusCache.invalidate();
     }
 }
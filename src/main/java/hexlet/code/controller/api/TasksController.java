@@ -1,12 +1,23 @@
 package hexlet.code.controller.api;
 
+import hexlet.code.dto.page.PageParamsDTO;
+import hexlet.code.dto.task.TaskBoardColumnDTO;
+import hexlet.code.dto.task.TaskBulkDTO;
+import hexlet.code.dto.task.TaskBulkResultDTO;
 import hexlet.code.dto.task.TaskCreateDTO;
 import hexlet.code.dto.task.TaskDTO;
+import hexlet.code.dto.task.TaskMoveDTO;
 import hexlet.code.dto.task.TaskParamsDTO;
 import hexlet.code.dto.task.TaskUpdateDTO;
+import hexlet.code.service.TaskBoardService;
+import hexlet.code.service.TaskBulkService;
+import hexlet.code.service.TaskPatchService;
+import hexlet.code.service.TaskRankService;
 import hexlet.code.service.TasksService;
+import hexlet.code.util.EntityTags;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -15,7 +26,9 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -28,17 +41,49 @@ public class TasksController {
     @Autowired
     private TasksService tasksService;
 
+    @Autowired
+    private TaskBoardService taskBoardService;
+
+    @Autowired
+    private TaskRankService taskRankService;
+
+    @Autowired
+    private TaskBulkService taskBulkService;
+
+    @Autowired
+    private TaskPatchService taskPatchService;
+
     @GetMapping("")
-    public ResponseEntity<List<TaskDTO>> index(TaskParamsDTO params) {
-        var tasks = tasksService.getAll(params);
+    public ResponseEntity<List<TaskDTO>> index(TaskParamsDTO params, PageParamsDTO page) {
+        var tasks = tasksService.getAll(params, page);
         return ResponseEntity.ok()
-                .header("X-Total-Count", String.valueOf(tasks.size()))
-                .body(tasks);
+                .header("X-Total-Count", String.valueOf(tasks.getTotal()))
+                .body(tasks.getItems());
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<TaskDTO>> search(@RequestParam(required = false) String q, TaskParamsDTO params,
+            PageParamsDTO page) {
+        var tasks = tasksService.search(q, params, page);
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(tasks.getTotal()))
+                .body(tasks.getItems());
+    }
+
+    @GetMapping("/board")
+    public List<TaskBoardColumnDTO> board(TaskParamsDTO params, @RequestParam(required = false) Integer perColumn) {
+        return taskBoardService.getBoard(params, perColumn);
+    }
+
+    @PostMapping("/bulk")
+    public TaskBulkResultDTO bulk(TaskParamsDTO params, @Valid @RequestBody TaskBulkDTO data) {
+        return taskBulkService.apply(params, data);
     }
 
     @GetMapping("/{id}")
-    public TaskDTO show(@PathVariable Long id) {
-        return tasksService.getById(id);
+    public ResponseEntity<TaskDTO> show(@PathVariable Long id) {
+        var task = tasksService.getById(id);
+        return ResponseEntity.ok().eTag(EntityTags.of(task.getVersion())).body(task);
     }
 
     @PostMapping("")
@@ -48,13 +93,21 @@ public class TasksController {
     }
 
     @PutMapping("/{id}")
-    public TaskDTO update(@Valid @RequestBody TaskUpdateDTO data, @PathVariable Long id) {
-        return tasksService.update(data, id);
+    public ResponseEntity<TaskDTO> update(@Valid @RequestBody TaskUpdateDTO data, @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        var task = taskPatchService.update(data, id, EntityTags.parseIfMatch(ifMatch));
+        return ResponseEntity.ok().eTag(EntityTags.of(task.getVersion())).body(task);
+    }
+
+    @PostMapping("/{id}/move")
+    public TaskDTO move(@RequestBody TaskMoveDTO data, @PathVariable Long id) {
+        return taskRankService.move(id, data);
     }
 
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void delete(@PathVariable Long id) {
-        tasksService.delete(id);
+    public void delete(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        tasksService.delete(id, EntityTags.parseIfMatch(ifMatch));
     }
 }
@@ -1,12 +1,19 @@
 package hexlet.code.controller.api;
 
+import hexlet.code.dto.page.PageParamsDTO;
 import hexlet.code.dto.user.UserCreateDTO;
 import hexlet.code.dto.user.UserDTO;
+import hexlet.code.dto.user.UserImportResultDTO;
 import hexlet.code.dto.user.UserUpdateDTO;
+import hexlet.code.service.UserImportService;
 import hexlet.code.service.UsersService;
+import hexlet.code.util.EntityTags;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -14,10 +21,12 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -27,17 +36,21 @@ public class UsersController {
     @Autowired
     private UsersService userService;
 
+    @Autowired
+    private UserImportService userImportService;
+
     @GetMapping("")
-    public ResponseEntity<List<UserDTO>> index() {
-        var users = userService.getAll();
+    public ResponseEntity<List<UserDTO>> index(PageParamsDTO page) {
+        var users = userService.getAll(page);
         return ResponseEntity.ok()
-                .header("X-Total-Count", String.valueOf(users.size()))
-                .body(users);
+                .header("X-Total-Count", String.valueOf(users.getTotal()))
+                .body(users.getItems());
     }
 
     @GetMapping("/{id}")
-    public UserDTO show(@PathVariable Long id) {
-        return userService.getById(id);
+    public ResponseEntity<UserDTO> show(@PathVariable Long id) {
+        var user = userService.getById(id);
+        return ResponseEntity.ok().eTag(EntityTags.of(user.getVersion())).body(user);
     }
 
     @PostMapping("")
@@ -46,14 +59,28 @@ public class UsersController {
         return userService.create(data);
     }
 
+    // The body is read as a stream instead of being bound, so large imports are never fully buffered
+    @PostMapping(path = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public UserImportResultDTO importJson(HttpServletRequest request) throws IOException {
+        return userImportService.importJson(request.getInputStream());
+    }
+
+    @PostMapping(path = "/import", consumes = "text/csv")
+    public UserImportResultDTO importCsv(HttpServletRequest request) throws IOException {
+        return userImportService.importCsv(request.getReader());
+    }
+
     @PutMapping("/{id}")
-    public UserDTO update(@Valid @RequestBody UserUpdateDTO data, @PathVariable Long id) {
-        return userService.update(data, id);
+    public ResponseEntity<UserDTO> update(@Valid @RequestBody UserUpdateDTO data, @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        var user = userService.update(data, id, EntityTags.parseIfMatch(ifMatch));
+        return ResponseEntity.ok().eTag(EntityTags.of(user.getVersion())).body(user);
     }
 
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void delete(@PathVariable Long id) {
-        userService.delete(id);
+    public void delete(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        userService.delete(id, EntityTags.parseIfMatch(ifMatch));
     }
 }
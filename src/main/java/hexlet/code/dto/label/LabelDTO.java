@@ -9,6 +9,7 @@ import java.time.LocalDate;
 @Setter
 public class LabelDTO {
     private Long id;
+    private Long version;
     private String name;
     private LocalDate createdAt;
 }
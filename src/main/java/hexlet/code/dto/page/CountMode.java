@@ -0,0 +1,8 @@
+package hexlet.code.dto.page;
+
+public enum CountMode {
+    EXACT,
+    CACHED,
+    ESTIMATED,
+    NONE
+}
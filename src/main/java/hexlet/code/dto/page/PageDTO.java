@@ -0,0 +1,13 @@
+package hexlet.code.dto.page;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class PageDTO<T> {
+    private List<T> items;
+    private long total;
+}
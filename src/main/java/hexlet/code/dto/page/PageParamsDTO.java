@@ -0,0 +1,18 @@
+package hexlet.code.dto.page;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class PageParamsDTO {
+    private Integer start;
+    private Integer end;
+    private String sort;
+    private String order;
+    private CountMode count;
+
+    public boolean isPaged() {
+        return start != null && end != null;
+    }
+}
@@ -0,0 +1,6 @@
+package hexlet.code.dto.task;
+
+public enum LabelMatch {
+    ANY,
+    ALL
+}
@@ -0,0 +1,15 @@
+package hexlet.code.dto.task;
+
+import hexlet.code.dto.task_status.TaskStatusDTO;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class TaskBoardColumnDTO {
+    private TaskStatusDTO status;
+    private long total;
+    private List<TaskDTO> tasks;
+}
@@ -0,0 +1,9 @@
+package hexlet.code.dto.task;
+
+public enum TaskBulkAction {
+    SET_STATUS,
+    REASSIGN,
+    ADD_LABEL,
+    REMOVE_LABEL,
+    DELETE
+}
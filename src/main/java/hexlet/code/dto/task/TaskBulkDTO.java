@@ -0,0 +1,18 @@
+package hexlet.code.dto.task;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+// Change applied to every task matching the filter: status for SET_STATUS, assigneeId for REASSIGN (null
+// unassigns), labelId for ADD_LABEL and REMOVE_LABEL
+@Getter
+@Setter
+public class TaskBulkDTO {
+    @NotNull
+    private TaskBulkAction action;
+
+    private String status;
+    private Long assigneeId;
+    private Long labelId;
+}
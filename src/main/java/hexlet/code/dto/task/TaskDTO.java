@@ -11,7 +11,9 @@ import java.util.Set;
 @Setter
 public class TaskDTO {
     private Long id;
+    private Long version;
     private Long index;
+    private Long rank;
     private LocalDate createdAt;
     private String title;
     private String content;
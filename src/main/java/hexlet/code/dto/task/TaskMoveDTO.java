@@ -0,0 +1,14 @@
+package hexlet.code.dto.task;
+
+import lombok.Getter;
+import lombok.Setter;
+
+// Places the task right after previousId and/or right before nextId, in status when given. Without
+// neighbours the task goes after the last ranked task of the column
+@Getter
+@Setter
+public class TaskMoveDTO {
+    private Long previousId;
+    private Long nextId;
+    private String status;
+}
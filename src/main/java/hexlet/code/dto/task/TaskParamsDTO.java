@@ -1,13 +1,68 @@
 package hexlet.code.dto.task;
 
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+
 @Getter
 @Setter
+@EqualsAndHashCode
 public class TaskParamsDTO {
     private String titleCont;
     private Long assigneeId;
     private String status;
     private Long labelId;
+
+    private List<Long> assigneeIds;
+    private List<String> statuses;
+    private List<Long> labelIds;
+    private LabelMatch labelMatch = LabelMatch.ANY;
+
+    // A blank text matches every task, it is no filter at all
+    public boolean hasTitleCont() {
+        return titleCont != null && !titleCont.isBlank();
+    }
+
+    // Lower-cased LIKE pattern with the wildcards of the text escaped, for LIKE ... ESCAPE '\'
+    public String titleContPattern() {
+        var escaped = titleCont.toLowerCase()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    // The single value parameters are what the bundled client sends, they are merged with the lists
+    public Set<Long> collectAssigneeIds() {
+        return collect(assigneeId, assigneeIds);
+    }
+
+    // Slugs match case-insensitively, they are lower-cased once here for every query, index and cache key
+    public Set<String> collectStatuses() {
+        var slugs = new LinkedHashSet<String>();
+        collect(status, statuses).forEach(slug -> slugs.add(slug.toLowerCase(Locale.ROOT)));
+        return slugs;
+    }
+
+    public Set<Long> collectLabelIds() {
+        return collect(labelId, labelIds);
+    }
+
+    private static <T> Set<T> collect(T value, Collection<T> values) {
+        var result = new LinkedHashSet<T>();
+        if (value != null) {
+            result.add(value);
+        }
+        if (values != null) {
+            values.stream().filter(Objects::nonNull).forEach(result::add);
+        }
+        return result;
+    }
 }
@@ -9,6 +9,7 @@ import java.time.LocalDate;
 @Setter
 public class TaskStatusDTO {
     private Long id;
+    private Long version;
     private String name;
     private String slug;
     private LocalDate createdAt;
@@ -9,6 +9,7 @@ import java.time.LocalDate;
 @Setter
 public class UserDTO {
     private Long id;
+    private Long version;
     private String email;
     private String firstName;
     private String lastName;
@@ -0,0 +1,14 @@
+package hexlet.code.dto.user;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class UserImportErrorDTO {
+    private long row;
+    private String email;
+    private String message;
+}
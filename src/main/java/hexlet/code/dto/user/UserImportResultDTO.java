@@ -0,0 +1,14 @@
+package hexlet.code.dto.user;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+public class UserImportResultDTO {
+    private int imported;
+    private List<UserImportErrorDTO> errors = new ArrayList<>();
+}
@@ -0,0 +1,18 @@
+package hexlet.code.event;
+
+import hexlet.code.dto.task.TaskDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class TaskEvent {
+    private TaskEventType type;
+    private Long taskId;
+
+    // Snapshot of the task after the change, null for deletes
+    private TaskDTO task;
+
+    // Snapshot of the task before the change, null for creates
+    private TaskDTO previous;
+}
@@ -0,0 +1,8 @@
+package hexlet.code.event;
+
+public enum TaskEventType {
+    CREATED,
+    UPDATED,
+    ASSIGNED,
+    DELETED
+}
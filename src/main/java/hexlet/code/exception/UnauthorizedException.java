@@ -0,0 +1,7 @@
+package hexlet.code.exception;
+
+public class UnauthorizedException extends RuntimeException {
+    public UnauthorizedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,83 @@
+package hexlet.code.filter;
+
+import hexlet.code.component.RateLimitProperties;
+import hexlet.code.util.RateLimiter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final List<Bucket> buckets;
+
+    public RateLimitFilter(RateLimitProperties properties) {
+        this.buckets = properties.getRules().stream()
+                .map(rule -> new Bucket(
+                        PathPatternParser.defaultInstance.parse(rule.getPath()),
+                        rule.getMethod(),
+                        rule.getKey(),
+                        new RateLimiter(rule.getCapacity(), rule.getPeriod(), properties.getMaxKeys())))
+                .toList();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        var bucket = findBucket(request);
+        if (bucket != null) {
+            var wait = bucket.limiter().tryAcquire(resolveKey(bucket.keyType(), request), System.nanoTime());
+            if (wait > 0) {
+                var retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1));
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+                response.getWriter().write("Too many requests");
+                return;
+            }
+        }
+        chain.doFilter(request, response);
+    }
+
+    private Bucket findBucket(HttpServletRequest request) {
+        PathContainer path = null;
+        for (var bucket : buckets) {
+            if (bucket.method() != null && !bucket.method().equalsIgnoreCase(request.getMethod())) {
+                continue;
+            }
+            if (path == null) {
+                path = PathContainer.parsePath(request.getRequestURI());
+            }
+            if (bucket.pattern().matches(path)) {
+                return bucket;
+            }
+        }
+        return null;
+    }
+
+    private String resolveKey(RateLimitProperties.KeyType keyType, HttpServletRequest request) {
+        if (keyType == RateLimitProperties.KeyType.SUBJECT) {
+            var authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.isAuthenticated()
+                    && !(authentication instanceof AnonymousAuthenticationToken)) {
+                return "subject:" + authentication.getName();
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private record Bucket(PathPattern pattern, String method, RateLimitProperties.KeyType keyType,
+                          RateLimiter limiter) {
+    }
+}
@@ -13,7 +13,8 @@ public abstract class ReferenceMapper {
     @Autowired
     private EntityManager entityManager;
 
+    // A reference is not read, an id without a row fails on the foreign key when the referencing row is written
     public <T extends BaseEntity> T toEntity(Long id, @TargetType Class<T> entityClass) {
-        return id != null ? entityManager.find(entityClass, id) : null;
+        return id != null ? entityManager.getReference(entityClass, id) : null;
     }
 }
@@ -1,18 +1,18 @@
 package hexlet.code.mapper;
 
+import hexlet.code.component.TaskStatusCache;
 import hexlet.code.dto.task.TaskCreateDTO;
 import hexlet.code.dto.task.TaskDTO;
-import hexlet.code.dto.task.TaskUpdateDTO;
 import hexlet.code.exception.ResourceNotFoundException;
 import hexlet.code.model.Label;
 import hexlet.code.model.Task;
 import hexlet.code.model.TaskStatus;
 import hexlet.code.repository.LabelRepository;
-import hexlet.code.repository.TaskStatusRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingConstants;
-import org.mapstruct.MappingTarget;
 import org.mapstruct.NullValuePropertyMappingStrategy;
 import org.mapstruct.ReportingPolicy;
 import org.openapitools.jackson.nullable.JsonNullable;
@@ -34,7 +34,10 @@ public abstract class TaskMapper {
     private LabelRepository labelRepository;
 
     @Autowired
-    private TaskStatusRepository taskStatusRepository;
+    private TaskStatusCache taskStatusCache;
+
+    @Autowired
+    private EntityManager entityManager;
 
     @Mapping(target = "assignee", source = "assigneeId")
     @Mapping(target = "name", source = "title")
@@ -46,35 +49,40 @@ public abstract class TaskMapper {
     @Mapping(target = "assigneeId", source = "assignee.id")
     @Mapping(target = "title", source = "name")
     @Mapping(target = "content", source = "description")
-    @Mapping(target = "status", source = "taskStatus.slug")
+    @Mapping(target = "status", source = "taskStatus")
     @Mapping(target = "taskLabelIds", source = "labels")
     public abstract TaskDTO map(Task model);
 
-    @Mapping(target = "assignee", source = "assigneeId")
-    @Mapping(target = "name", source = "title")
-    @Mapping(target = "description", source = "content")
-    @Mapping(target = "taskStatus", source = "status")
-    @Mapping(target = "labels", source = "taskLabelIds")
-    public abstract void update(TaskUpdateDTO dto, @MappingTarget Task model);
-
     protected TaskStatus taskStatusFromSlug(String slug) {
-        return taskStatusRepository.findBySlug(slug)
-                .orElseThrow(() -> new ResourceNotFoundException("Slug " + slug + " not found"));
+        return entityManager.getReference(TaskStatus.class, taskStatusCache.idOf(slug));
     }
 
+    // A status only referenced by a write is not loaded, its slug comes from the cache
+    protected String slugOfTaskStatus(TaskStatus taskStatus) {
+        if (taskStatus == null) {
+            return null;
+        }
+        if (!Hibernate.isInitialized(taskStatus)) {
+            var slug = taskStatusCache.slugOf(taskStatus.getId());
+            if (slug != null) {
+                return slug;
+            }
+        }
+        return taskStatus.getSlug();
+    }
+
+    // All labels in one query
     protected Set<Label> labelsFromIds(Set<Long> taskLabelIds) {
         if (taskLabelIds == null || taskLabelIds.isEmpty() || taskLabelIds.contains(null)) {
             return new HashSet<>();
         }
-        return taskLabelIds.stream()
-                .map(id -> labelRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException(
-                        "Label with id " + id + " not found"
-                )))
-                .collect(Collectors.toSet());
-    }
-
-    protected Set<Label> labelsFromNullables(JsonNullable<Set<Long>> nullableLabelIds) {
-        return nullableLabelIds == null ? new HashSet<>() :  labelsFromIds(nullableLabelIds.get());
+        var labels = new HashSet<>(labelRepository.findAllById(taskLabelIds));
+        if (labels.size() < taskLabelIds.size()) {
+            var found = labels.stream().map(Label::getId).collect(Collectors.toSet());
+            var missing = taskLabelIds.stream().filter(id -> !found.contains(id)).findFirst().orElseThrow();
+            throw new ResourceNotFoundException("Label with id " + missing + " not found");
+        }
+        return labels;
     }
 
     protected Set<Long> labelIdsFromLabels(Set<Label> labels) {
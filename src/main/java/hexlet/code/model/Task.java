@@ -4,17 +4,23 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
+import jakarta.persistence.ForeignKey;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
@@ -22,34 +28,57 @@ import java.time.LocalDate;
 import java.util.Set;
 
 @Entity
-@Table(name = "tasks")
+@Table(name = "tasks", indexes = @Index(name = "idx_tasks_status_rank", columnList = "task_status_id, board_rank"))
 @EntityListeners(AuditingEntityListener.class)
 @Getter
 @Setter
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class Task implements BaseEntity {
 
+    public static final String STATUS_FOREIGN_KEY = "fk_tasks_task_status";
+    public static final String ASSIGNEE_FOREIGN_KEY = "fk_tasks_assignee";
+    public static final String LABELS_TASK_FOREIGN_KEY = "fk_tasks_labels_task";
+    public static final String LABELS_LABEL_FOREIGN_KEY = "fk_tasks_labels_label";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @EqualsAndHashCode.Include
     private Long id;
 
+    // Rows inserted with plain SQL (import, seeding) start at 0
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @NotBlank
     private String name;
 
     private Long index;
 
+    // Sparse position inside the status column, null until the rank job places a new task
+    @Column(name = "board_rank")
+    private Long rank;
+
     @Column(columnDefinition = "TEXT")
     private String description;
 
+    // The foreign keys are named so that a violation tells which reference is missing, see TaskReferenceViolations
     @NotNull
     @ManyToOne(fetch = FetchType.EAGER)
+    @JoinColumn(foreignKey = @ForeignKey(name = Task.STATUS_FOREIGN_KEY))
     private TaskStatus taskStatus;
 
     @ManyToOne(fetch = FetchType.EAGER)
+    @JoinColumn(foreignKey = @ForeignKey(name = Task.ASSIGNEE_FOREIGN_KEY))
     private User assignee;
 
+    // The primary key (tasks_id, labels_id) serves lookups by task, the index serves filtering by label
     @ManyToMany(fetch = FetchType.EAGER)
+    @JoinTable(name = "tasks_labels",
+            foreignKey = @ForeignKey(name = Task.LABELS_TASK_FOREIGN_KEY),
+            inverseForeignKey = @ForeignKey(name = Task.LABELS_LABEL_FOREIGN_KEY),
+            indexes = @Index(name = "idx_tasks_labels_label", columnList = "labels_id, tasks_id"))
     private Set<Label> labels;
 
     @CreatedDate
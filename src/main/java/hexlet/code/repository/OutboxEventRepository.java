@@ -0,0 +1,27 @@
+package hexlet.code.repository;
+
+import hexlet.code.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Rows claimed by the transaction of another relay are passed over, they stay locked until it ends
+    @Query(value = "SELECT * FROM outbox_events ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> claimBatch(@Param("limit") int limit);
+
+    // Both ends come from the primary key index
+    @Query("SELECT MIN(e.id) AS first, MAX(e.id) AS last FROM OutboxEvent e")
+    IdRange findIdRange();
+
+    interface IdRange {
+        Long getFirst();
+
+        Long getLast();
+    }
+}
@@ -0,0 +1,13 @@
+package hexlet.code.repository;
+
+import hexlet.code.model.Task;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface TaskRepositoryCustom {
+
+    // Unlike findAll(Specification, Pageable) this does not run a count query
+    List<Task> findSlice(Specification<Task> specification, Pageable pageable);
+}
@@ -0,0 +1,60 @@
+package hexlet.code.repository;
+
+import hexlet.code.model.Task;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+
+public class TaskRepositoryCustomImpl implements TaskRepositoryCustom {
+
+    // Ids per query, Postgres takes at most 32767 bind parameters
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // The page is selected as ids first, its tasks are then loaded with status, assignee and labels in one query
+    // per batch. Fetching the labels along with the page query would page in memory
+    @Override
+    public List<Task> findSlice(Specification<Task> specification, Pageable pageable) {
+        var cb = entityManager.getCriteriaBuilder();
+        var query = cb.createQuery(Long.class);
+        var root = query.from(Task.class);
+        var predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root.get("id")).orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        var typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        var ids = typedQuery.getResultList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        var graph = entityManager.createEntityGraph(Task.class);
+        graph.addAttributeNodes("taskStatus", "assignee", "labels");
+        var tasks = new HashMap<Long, Task>();
+        for (var from = 0; from < ids.size(); from += LOAD_BATCH_SIZE) {
+            entityManager.createQuery("select t from Task t where t.id in :ids", Task.class)
+                    .setParameter("ids", ids.subList(from, Math.min(ids.size(), from + LOAD_BATCH_SIZE)))
+                    .setHint("jakarta.persistence.fetchgraph", graph)
+                    .getResultList()
+                    .forEach(task -> tasks.put(task.getId(), task));
+        }
+        return ids.stream()
+                .map(tasks::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
@@ -0,0 +1,36 @@
+package hexlet.code.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hexlet.code.event.TaskEvent;
+import hexlet.code.model.OutboxEvent;
+import hexlet.code.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Service
+public class OutboxService {
+
+    public static final String TASK_AGGREGATE = "task";
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper om;
+
+    // Runs inside the transaction of the task change, so the event is stored only if the change is committed
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void record(TaskEvent event) throws JsonProcessingException {
+        var outboxEvent = new OutboxEvent();
+        outboxEvent.setAggregateType(TASK_AGGREGATE);
+        outboxEvent.setAggregateId(event.getTaskId());
+        outboxEvent.setType(event.getType());
+        if (event.getTask() != null) {
+            outboxEvent.setPayload(om.writeValueAsString(event.getTask()));
+        }
+        outboxEventRepository.save(outboxEvent);
+    }
+}
@@ -0,0 +1,133 @@
+package hexlet.code.service;
+
+import hexlet.code.exception.UnauthorizedException;
+import hexlet.code.model.RefreshToken;
+import hexlet.code.repository.RefreshTokenRepository;
+import hexlet.code.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+// Opaque refresh tokens: the row id followed by a random secret. Renewal is a primary key lookup and a SHA-256,
+// no password hash involved. Every renewal replaces the token, and a replaced token that comes back revokes the
+// whole family, since either its owner or a thief holds a newer one
+@Slf4j
+@Service
+public class RefreshTokenService {
+
+    private static final int SECRET_BYTES = 32;
+    private static final int TOKEN_BYTES = 16 + SECRET_BYTES;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${auth.refresh-token-ttl:14d}")
+    private Duration ttl;
+
+    private final SecureRandom random = new SecureRandom();
+
+    @Transactional
+    public String issue(Long userId) {
+        return issue(userId, UUID.randomUUID());
+    }
+
+    // Returns the subject of the token and its replacement. Failures other than reuse leave the token as it was
+    @Transactional(noRollbackFor = UnauthorizedException.class)
+    public Renewal renew(String token) {
+        var bytes = decode(token);
+        var buffer = ByteBuffer.wrap(bytes);
+        var id = new UUID(buffer.getLong(), buffer.getLong());
+        var secret = new byte[SECRET_BYTES];
+        buffer.get(secret);
+
+        var stored = refreshTokenRepository.findById(id)
+                .filter(candidate -> MessageDigest.isEqual(hash(secret), candidate.getSecretHash()))
+                .orElseThrow(() -> new UnauthorizedException("Invalid refresh token"));
+        var now = Instant.now();
+        if (stored.getExpiresAt().isBefore(now)) {
+            throw new UnauthorizedException("Refresh token expired");
+        }
+        if (stored.getUsedAt() != null || refreshTokenRepository.markUsed(id, now) == 0) {
+            refreshTokenRepository.deleteFamily(stored.getFamilyId());
+            log.warn("Refresh token of user {} was used twice, revoked its family", stored.getUserId());
+            throw new UnauthorizedException("Refresh token was already used, please log in again");
+        }
+
+        var user = userRepository.findById(stored.getUserId())
+                .orElseThrow(() -> new UnauthorizedException("Invalid refresh token"));
+        return new Renewal(user.getEmail(), issue(stored.getUserId(), stored.getFamilyId()));
+    }
+
+    // Logs the user out everywhere, once their access tokens expire
+    @Transactional
+    public void revokeAll(Long userId) {
+        refreshTokenRepository.deleteAllOfUser(userId);
+    }
+
+    @Scheduled(fixedDelayString = "PT1H")
+    @Transactional
+    public void deleteExpired() {
+        var deleted = refreshTokenRepository.deleteExpired(Instant.now());
+        if (deleted > 0) {
+            log.debug("Deleted {} expired refresh tokens", deleted);
+        }
+    }
+
+    private String issue(Long userId, UUID familyId) {
+        var secret = new byte[SECRET_BYTES];
+        random.nextBytes(secret);
+
+        var refreshToken = new RefreshToken();
+        refreshToken.setFamilyId(familyId);
+        refreshToken.setUserId(userId);
+        refreshToken.setSecretHash(hash(secret));
+        refreshToken.setExpiresAt(Instant.now().plus(ttl));
+        refreshTokenRepository.save(refreshToken);
+
+        var id = refreshToken.getId();
+        var bytes = ByteBuffer.allocate(TOKEN_BYTES)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .put(secret)
+                .array();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static byte[] decode(String token) {
+        try {
+            var bytes = Base64.getUrlDecoder().decode(token == null ? "" : token);
+            if (bytes.length == TOKEN_BYTES) {
+                return bytes;
+            }
+        } catch (IllegalArgumentException e) {
+            // Falls through to the error below
+        }
+        throw new UnauthorizedException("Invalid refresh token");
+    }
+
+    private static byte[] hash(byte[] secret) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(secret);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public record Renewal(String subject, String refreshToken) {
+    }
+}
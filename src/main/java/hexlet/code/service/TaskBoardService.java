@@ -0,0 +1,108 @@
+package hexlet.code.service;
+
+import hexlet.code.component.TaskListProperties;
+import hexlet.code.dto.task.TaskBoardColumnDTO;
+import hexlet.code.dto.task.TaskDTO;
+import hexlet.code.dto.task.TaskParamsDTO;
+import hexlet.code.exception.BadRequestException;
+import hexlet.code.mapper.TaskMapper;
+import hexlet.code.mapper.TaskStatusMapper;
+import hexlet.code.model.Task;
+import hexlet.code.repository.TaskRepository;
+import hexlet.code.repository.TaskStatusRepository;
+import hexlet.code.specification.task.TaskSqlFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class TaskBoardService {
+
+    // Ranks the filtered tasks inside every status and keeps the first rows of each, the column total
+    // comes from the same pass
+    private static final String BOARD_QUERY = """
+            SELECT b.id, b.task_status_id, b.total FROM (
+                SELECT t.id, t.task_status_id,
+                    ROW_NUMBER() OVER (PARTITION BY t.task_status_id
+                        ORDER BY t.board_rank NULLS LAST, t.index NULLS LAST, t.id) AS position,
+                    COUNT(*) OVER (PARTITION BY t.task_status_id) AS total
+                FROM tasks t
+                WHERE %s
+            ) b
+            WHERE b.position <= ?
+            ORDER BY b.task_status_id, b.position""";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TaskSqlFilter taskSqlFilter;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskStatusRepository taskStatusRepository;
+
+    @Autowired
+    private TaskMapper taskMapper;
+
+    @Autowired
+    private TaskStatusMapper taskStatusMapper;
+
+    @Autowired
+    private TaskListProperties properties;
+
+    @Transactional(readOnly = true)
+    public List<TaskBoardColumnDTO> getBoard(TaskParamsDTO params, Integer perColumn) {
+        var limit = perColumn != null ? perColumn : properties.getBoardColumnSize();
+        // The totals come from the same rows as the page, a column without rows would report 0 tasks
+        if (limit < 1 || limit > properties.getBoardMaxColumnSize()) {
+            throw new BadRequestException("perColumn must be between 1 and " + properties.getBoardMaxColumnSize());
+        }
+
+        var condition = taskSqlFilter.build(params);
+        var args = new ArrayList<>(condition.getArgs());
+        args.add(limit);
+
+        var idsByStatus = new HashMap<Long, List<Long>>();
+        var totals = new HashMap<Long, Long>();
+        jdbcTemplate.query(BOARD_QUERY.formatted(condition.getSql()), rs -> {
+            var statusId = rs.getLong("task_status_id");
+            idsByStatus.computeIfAbsent(statusId, id -> new ArrayList<>()).add(rs.getLong("id"));
+            totals.put(statusId, rs.getLong("total"));
+        }, args.toArray());
+
+        var ids = idsByStatus.values().stream().flatMap(List::stream).toList();
+        Map<Long, Task> tasks = ids.isEmpty() ? Map.of() : taskRepository.findAllByIdIn(ids).stream()
+                .collect(Collectors.toMap(Task::getId, Function.identity()));
+
+        var columns = new ArrayList<TaskBoardColumnDTO>();
+        for (var status : taskStatusRepository.findAll(Sort.by("id"))) {
+            var column = new TaskBoardColumnDTO();
+            column.setStatus(taskStatusMapper.map(status));
+            column.setTotal(totals.getOrDefault(status.getId(), 0L));
+            column.setTasks(mapInOrder(idsByStatus.getOrDefault(status.getId(), List.of()), tasks));
+            columns.add(column);
+        }
+        return columns;
+    }
+
+    private List<TaskDTO> mapInOrder(List<Long> ids, Map<Long, Task> tasks) {
+        return ids.stream()
+                .map(tasks::get)
+                .filter(Objects::nonNull)
+                .map(taskMapper::map)
+                .toList();
+    }
+}
@@ -0,0 +1,194 @@
+package hexlet.code.service;
+
+import hexlet.code.dto.task.TaskBulkAction;
+import hexlet.code.dto.task.TaskBulkDTO;
+import hexlet.code.dto.task.TaskBulkResultDTO;
+import hexlet.code.dto.task.TaskDTO;
+import hexlet.code.dto.task.TaskParamsDTO;
+import hexlet.code.event.TaskEvent;
+import hexlet.code.event.TaskEventType;
+import hexlet.code.exception.BadRequestException;
+import hexlet.code.exception.ResourceNotFoundException;
+import hexlet.code.repository.LabelRepository;
+import hexlet.code.repository.TaskStatusRepository;
+import hexlet.code.repository.UserRepository;
+import hexlet.code.specification.task.TaskSqlFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+// Applies one change to every task matching a filter with a few set-based statements, instead of loading and
+// saving the tasks one by one. Task ids travel as a single array parameter, whatever their number
+@Slf4j
+@Service
+public class TaskBulkService {
+
+    private static final String TOUCH = "UPDATE tasks SET version = version + 1 WHERE id = ANY(?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TaskSqlFilter taskSqlFilter;
+
+    @Autowired
+    private TaskSnapshots taskSnapshots;
+
+    @Autowired
+    private TaskStatusRepository taskStatusRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LabelRepository labelRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public TaskBulkResultDTO apply(TaskParamsDTO params, TaskBulkDTO data) {
+        if (!params.hasTitleCont() && params.collectStatuses().isEmpty()
+                && params.collectAssigneeIds().isEmpty() && params.collectLabelIds().isEmpty()) {
+            throw new BadRequestException("A bulk change needs at least one filter");
+        }
+
+        var ids = lockMatching(params);
+        var previous = taskSnapshots.find(ids);
+        var changed = switch (data.getAction()) {
+            case SET_STATUS -> setStatus(previous, data);
+            case REASSIGN -> reassign(previous, data);
+            case ADD_LABEL -> addLabel(previous, data);
+            case REMOVE_LABEL -> removeLabel(previous, data);
+            case DELETE -> delete(previous);
+        };
+        publish(data.getAction(), changed, previous);
+        log.debug("Bulk {} matched {} tasks and changed {}", data.getAction(), ids.size(), changed.size());
+        return new TaskBulkResultDTO(changed.size());
+    }
+
+    private List<Long> setStatus(Map<Long, TaskDTO> previous, TaskBulkDTO data) {
+        var status = taskStatusRepository.findBySlug(require(data.getStatus(), "status"))
+                .orElseThrow(() -> new ResourceNotFoundException("Slug " + data.getStatus() + " not found"));
+        var changed = select(previous, task -> !task.getStatus().equals(status.getSlug()));
+        // The tasks go to the end of the new column once the rank job sees them
+        update("UPDATE tasks SET task_status_id = ?, board_rank = NULL, version = version + 1 WHERE id = ANY(?)",
+                changed, ps -> ps.setLong(1, status.getId()));
+        return changed;
+    }
+
+    private List<Long> reassign(Map<Long, TaskDTO> previous, TaskBulkDTO data) {
+        var assigneeId = data.getAssigneeId();
+        if (assigneeId != null && !userRepository.existsById(assigneeId)) {
+            throw new ResourceNotFoundException("User with id " + assigneeId + " not found");
+        }
+        var changed = select(previous, task -> !Objects.equals(task.getAssigneeId(), assigneeId));
+        update("UPDATE tasks SET assignee_id = ?, version = version + 1 WHERE id = ANY(?)", changed, ps -> {
+            if (assigneeId == null) {
+                ps.setNull(1, Types.BIGINT);
+            } else {
+                ps.setLong(1, assigneeId);
+            }
+        });
+        return changed;
+    }
+
+    private List<Long> addLabel(Map<Long, TaskDTO> previous, TaskBulkDTO data) {
+        var labelId = requireLabel(data);
+        var changed = select(previous, task -> !task.getTaskLabelIds().contains(labelId));
+        update("INSERT INTO tasks_labels (tasks_id, labels_id) SELECT t.id, ? FROM tasks t WHERE t.id = ANY(?)",
+                changed, ps -> ps.setLong(1, labelId));
+        update(TOUCH, changed, ps -> { });
+        return changed;
+    }
+
+    private List<Long> removeLabel(Map<Long, TaskDTO> previous, TaskBulkDTO data) {
+        var labelId = requireLabel(data);
+        var changed = select(previous, task -> task.getTaskLabelIds().contains(labelId));
+        update("DELETE FROM tasks_labels WHERE labels_id = ? AND tasks_id = ANY(?)", changed,
+                ps -> ps.setLong(1, labelId));
+        update(TOUCH, changed, ps -> { });
+        return changed;
+    }
+
+    private List<Long> delete(Map<Long, TaskDTO> previous) {
+        var changed = List.copyOf(previous.keySet());
+        update("DELETE FROM tasks_labels WHERE tasks_id = ANY(?)", changed, ps -> { });
+        update("DELETE FROM tasks WHERE id = ANY(?)", changed, ps -> { });
+        return changed;
+    }
+
+    // Same events as the single task endpoints, so the outbox, the facet index and the caches follow along
+    private void publish(TaskBulkAction action, List<Long> changed, Map<Long, TaskDTO> previous) {
+        if (action == TaskBulkAction.DELETE) {
+            changed.forEach(id -> eventPublisher.publishEvent(
+                    new TaskEvent(TaskEventType.DELETED, id, null, previous.get(id))));
+            return;
+        }
+        var current = taskSnapshots.find(changed);
+        for (var id : changed) {
+            var task = current.get(id);
+            eventPublisher.publishEvent(new TaskEvent(TaskEventType.UPDATED, id, task, previous.get(id)));
+            if (action == TaskBulkAction.REASSIGN) {
+                eventPublisher.publishEvent(new TaskEvent(TaskEventType.ASSIGNED, id, task, previous.get(id)));
+            }
+        }
+    }
+
+    // Locks the matching rows up front, the statements below then work on exactly this set
+    private List<Long> lockMatching(TaskParamsDTO params) {
+        var condition = taskSqlFilter.build(params);
+        return jdbcTemplate.queryForList("SELECT t.id FROM tasks t WHERE " + condition.getSql()
+                + " ORDER BY t.id FOR UPDATE", Long.class, condition.getArgs().toArray());
+    }
+
+    // The id array is always the last parameter, setter fills the ones before it
+    private void update(String sql, List<Long> ids, PreparedStatementSetter setter) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        var idsIndex = (int) sql.chars().filter(c -> c == '?').count();
+        jdbcTemplate.update(sql, ps -> {
+            setter.setValues(ps);
+            setIds(ps, idsIndex, ids);
+        });
+    }
+
+    private Long requireLabel(TaskBulkDTO data) {
+        var labelId = require(data.getLabelId(), "labelId");
+        if (!labelRepository.existsById(labelId)) {
+            throw new ResourceNotFoundException("Label with id " + labelId + " not found");
+        }
+        return labelId;
+    }
+
+    private static <T> T require(T value, String field) {
+        if (value == null) {
+            throw new BadRequestException(field + " is required for this action");
+        }
+        return value;
+    }
+
+    private static List<Long> select(Map<Long, TaskDTO> tasks, Predicate<TaskDTO> needsChange) {
+        return tasks.values().stream()
+                .filter(needsChange)
+                .map(TaskDTO::getId)
+                .toList();
+    }
+
+    private static void setIds(PreparedStatement ps, int index, List<Long> ids) throws SQLException {
+        ps.setArray(index, ps.getConnection().createArrayOf("bigint", ids.toArray()));
+    }
+}
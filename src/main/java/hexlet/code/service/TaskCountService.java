@@ -0,0 +1,106 @@
+package hexlet.code.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hexlet.code.component.TaskListProperties;
+import hexlet.code.dto.page.CountMode;
+import hexlet.code.dto.task.TaskParamsDTO;
+import hexlet.code.event.TaskEvent;
+import hexlet.code.model.Task;
+import hexlet.code.repository.TaskRepository;
+import hexlet.code.specification.task.TaskSqlFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class TaskCountService {
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskSqlFilter taskSqlFilter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TaskListProperties properties;
+
+    @Autowired
+    private ObjectMapper om;
+
+    private final Map<TaskParamsDTO, CachedCount> cache = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Boolean postgres;
+
+    // Returns null when the caller asked not to count
+    public Long count(TaskParamsDTO params, Specification<Task> specification, CountMode mode) {
+        return switch (mode) {
+            case EXACT -> taskRepository.count(specification);
+            case CACHED -> cachedCount(params, specification);
+            case ESTIMATED -> isPostgres() ? estimatedCount(params) : taskRepository.count(specification);
+            case NONE -> null;
+        };
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTaskChanged(TaskEvent event) {
+        generation.incrementAndGet();
+        cache.clear();
+    }
+
+    private long cachedCount(TaskParamsDTO params, Specification<Task> specification) {
+        var now = System.nanoTime();
+        var cached = cache.get(params);
+        if (cached != null && now - cached.expiresAt() < 0) {
+            return cached.count();
+        }
+
+        var startGeneration = generation.get();
+        var count = taskRepository.count(specification);
+        if (cache.size() >= properties.getCountCacheMaxEntries()) {
+            cache.clear();
+        }
+        var entry = new CachedCount(count, now + properties.getCountCacheTtl().toNanos());
+        cache.put(params, entry);
+        // A task changed while counting, the result may already be stale
+        if (generation.get() != startGeneration) {
+            cache.remove(params, entry);
+        }
+        return count;
+    }
+
+    // Row estimate of the planner for the filtered query, as cheap as planning it
+    private long estimatedCount(TaskParamsDTO params) {
+        var condition = taskSqlFilter.build(params);
+        var plan = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) SELECT 1 FROM tasks t WHERE "
+                + condition.getSql(), String.class, condition.getArgs().toArray());
+        try {
+            return om.readTree(plan).path(0).path("Plan").path("Plan Rows").asLong();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unexpected EXPLAIN output", e);
+        }
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            var product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            postgres = "PostgreSQL".equals(product);
+        }
+        return postgres;
+    }
+
+    private record CachedCount(long count, long expiresAt) {
+    }
+}
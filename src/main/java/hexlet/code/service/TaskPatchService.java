@@ -0,0 +1,216 @@
+package hexlet.code.service;
+
+import hexlet.code.component.TaskReferenceViolations;
+import hexlet.code.component.TaskStatusCache;
+import hexlet.code.dto.task.TaskDTO;
+import hexlet.code.dto.task.TaskUpdateDTO;
+import hexlet.code.event.TaskEvent;
+import hexlet.code.event.TaskEventType;
+import hexlet.code.exception.ResourceNotFoundException;
+import hexlet.code.util.EntityTags;
+import jakarta.transaction.Transactional;
+import org.openapitools.jackson.nullable.JsonNullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+// Applies the fields present in an update to one task with a targeted UPDATE of just their columns, guarded by the
+// version that was read. The task is read once as a flat projection, without its assignee, status and labels, and
+// the returned task is that projection with the changes applied
+@Service
+public class TaskPatchService {
+
+    private static final String SNAPSHOT = "SELECT t.id, t.version, t.index, t.board_rank, t.created_at, t.name, "
+            + "t.description, t.assignee_id, s.slug, tl.labels_id FROM tasks t "
+            + "JOIN task_statuses s ON s.id = t.task_status_id LEFT JOIN tasks_labels tl ON tl.tasks_id = t.id "
+            + "WHERE t.id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TaskStatusCache taskStatusCache;
+
+    @Autowired
+    private TaskReferenceViolations taskReferenceViolations;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public TaskDTO update(TaskUpdateDTO data, Long id, Long expectedVersion) {
+        var previous = snapshot(id);
+        EntityTags.check(expectedVersion, previous.getVersion(), "Task " + id);
+
+        var task = TaskSnapshots.copy(previous);
+        var columns = new ArrayList<String>();
+        var args = new ArrayList<>();
+        if (isPresent(data.getTitle()) && !Objects.equals(data.getTitle().get(), task.getTitle())) {
+            task.setTitle(data.getTitle().get());
+            set(columns, args, "name", task.getTitle());
+        }
+        if (isPresent(data.getContent()) && !Objects.equals(data.getContent().get(), task.getContent())) {
+            task.setContent(data.getContent().get());
+            set(columns, args, "description", task.getContent());
+        }
+        if (isPresent(data.getIndex()) && !Objects.equals(data.getIndex().get(), task.getIndex())) {
+            task.setIndex(data.getIndex().get());
+            set(columns, args, "index", task.getIndex());
+        }
+        if (isPresent(data.getAssigneeId()) && !Objects.equals(data.getAssigneeId().get(), task.getAssigneeId())) {
+            task.setAssigneeId(data.getAssigneeId().get());
+            set(columns, args, "assignee_id", task.getAssigneeId());
+        }
+        Long statusId = null;
+        if (isPresent(data.getStatus()) && !data.getStatus().get().equals(task.getStatus())) {
+            statusId = taskStatusCache.idOf(data.getStatus().get());
+            task.setStatus(data.getStatus().get());
+            set(columns, args, "task_status_id", statusId);
+        }
+        LabelChange labels = null;
+        if (isPresent(data.getTaskLabelIds())) {
+            var change = LabelChange.of(task, data.getTaskLabelIds().get());
+            if (!change.isEmpty()) {
+                requireLabels(change.added());
+                task.setTaskLabelIds(change.wanted());
+                labels = change;
+            }
+        }
+
+        // An update that changes nothing writes nothing and is not published
+        if (columns.isEmpty() && labels == null) {
+            return task;
+        }
+
+        // The version check comes first, the label rows below then change from the state that was read
+        columns.add("version = version + 1");
+        args.add(id);
+        args.add(previous.getVersion());
+        try {
+            var updated = jdbcTemplate.update("UPDATE tasks SET " + String.join(", ", columns)
+                    + " WHERE id = ? AND version = ?", args.toArray());
+            if (updated == 0) {
+                throw new OptimisticLockingFailureException("Task " + id + " was modified concurrently");
+            }
+        } catch (DataIntegrityViolationException e) {
+            throw taskReferenceViolations.toException(e, task.getAssigneeId(), statusId);
+        }
+        if (labels != null) {
+            updateLabels(id, labels);
+        }
+        task.setVersion(previous.getVersion() + 1);
+
+        eventPublisher.publishEvent(new TaskEvent(TaskEventType.UPDATED, id, task, previous));
+        if (!Objects.equals(previous.getAssigneeId(), task.getAssigneeId())) {
+            eventPublisher.publishEvent(new TaskEvent(TaskEventType.ASSIGNED, id, task, previous));
+        }
+        return task;
+    }
+
+    private void requireLabels(List<Long> labelIds) {
+        if (labelIds.isEmpty()) {
+            return;
+        }
+        var existing = jdbcTemplate.query("SELECT id FROM labels WHERE id = ANY(?)",
+                ps -> setIds(ps, 1, labelIds), (rs, rowNum) -> rs.getLong("id"));
+        labelIds.stream()
+                .filter(labelId -> !existing.contains(labelId))
+                .findFirst()
+                .ifPresent(labelId -> {
+                    throw new ResourceNotFoundException("Label with id " + labelId + " not found");
+                });
+    }
+
+    // Only the rows that differ are deleted and inserted
+    private void updateLabels(Long id, LabelChange labels) {
+        if (!labels.removed().isEmpty()) {
+            jdbcTemplate.update("DELETE FROM tasks_labels WHERE tasks_id = ? AND labels_id = ANY(?)", ps -> {
+                ps.setLong(1, id);
+                setIds(ps, 2, labels.removed());
+            });
+        }
+        if (!labels.added().isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO tasks_labels (tasks_id, labels_id) VALUES (?, ?)", labels.added(),
+                    labels.added().size(), (ps, labelId) -> {
+                        ps.setLong(1, id);
+                        ps.setLong(2, labelId);
+                    });
+        }
+    }
+
+    private TaskDTO snapshot(Long id) {
+        var tasks = new ArrayList<TaskDTO>();
+        jdbcTemplate.query(SNAPSHOT, (RowCallbackHandler) rs -> {
+            if (tasks.isEmpty()) {
+                var task = new TaskDTO();
+                task.setId(rs.getLong("id"));
+                task.setVersion(rs.getLong("version"));
+                task.setIndex(nullableLong(rs, "index"));
+                task.setRank(nullableLong(rs, "board_rank"));
+                task.setCreatedAt(rs.getObject("created_at", LocalDate.class));
+                task.setTitle(rs.getString("name"));
+                task.setContent(rs.getString("description"));
+                task.setAssigneeId(nullableLong(rs, "assignee_id"));
+                task.setStatus(rs.getString("slug"));
+                task.setTaskLabelIds(new HashSet<>());
+                tasks.add(task);
+            }
+            var labelId = nullableLong(rs, "labels_id");
+            if (labelId != null) {
+                tasks.get(0).getTaskLabelIds().add(labelId);
+            }
+        }, id);
+        if (tasks.isEmpty()) {
+            throw new ResourceNotFoundException("Task with id " + id + " not found");
+        }
+        return tasks.get(0);
+    }
+
+    private static void set(List<String> columns, List<Object> args, String column, Object value) {
+        columns.add(column + " = ?");
+        args.add(value);
+    }
+
+    private static boolean isPresent(JsonNullable<?> nullable) {
+        return nullable != null && nullable.isPresent();
+    }
+
+    private static void setIds(PreparedStatement ps, int index, List<Long> ids) throws SQLException {
+        ps.setArray(index, ps.getConnection().createArrayOf("bigint", ids.toArray()));
+    }
+
+    private static Long nullableLong(ResultSet rs, String column) throws SQLException {
+        var value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private record LabelChange(Set<Long> wanted, List<Long> added, List<Long> removed) {
+
+        static LabelChange of(TaskDTO task, Set<Long> labelIds) {
+            var wanted = labelIds == null || labelIds.contains(null) ? new HashSet<Long>() : new HashSet<>(labelIds);
+            var added = new ArrayList<>(wanted);
+            added.removeAll(task.getTaskLabelIds());
+            var removed = new ArrayList<>(task.getTaskLabelIds());
+            removed.removeAll(wanted);
+            return new LabelChange(wanted, added, removed);
+        }
+
+        boolean isEmpty() {
+            return added.isEmpty() && removed.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package hexlet.code.service;
+
+import hexlet.code.component.TaskStatusCache;
+import hexlet.code.dto.task.TaskDTO;
+import hexlet.code.dto.task.TaskMoveDTO;
+import hexlet.code.event.TaskEvent;
+import hexlet.code.event.TaskEventType;
+import hexlet.code.exception.BadRequestException;
+import hexlet.code.exception.ResourceNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Keeps board ranks sparse so that a move is one UPDATE of the moved row. Columns are renumbered in the
+// background once a gap gets narrow, and before the move only when no free rank is left between the neighbours.
+// Rows are always locked in id order, so that moves and renumbering cannot deadlock each other. Every rank change
+// bumps the version and is published like any other task change
+@Slf4j
+@Service
+public class TaskRankService {
+
+    public static final long RANK_STEP = 1L << 16;
+    private static final long MIN_GAP = 64;
+
+    private static final String LOCK_ROWS = "SELECT t.id, t.task_status_id, t.board_rank, s.slug FROM tasks t "
+            + "JOIN task_statuses s ON s.id = t.task_status_id WHERE t.id IN (%s) ORDER BY t.id FOR UPDATE";
+    private static final String MOVE = "UPDATE tasks SET board_rank = ?, task_status_id = ?, version = version + 1 "
+            + "WHERE id = ?";
+    private static final String UPDATE_RANK = "UPDATE tasks SET board_rank = ?, version = version + 1 WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TaskSnapshots taskSnapshots;
+
+    @Autowired
+    private TaskStatusCache taskStatusCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final Set<Long> crowdedStatuses = ConcurrentHashMap.newKeySet();
+    // Imported and seeded rows are unranked as well, so the first run always looks for them
+    private final AtomicBoolean unrankedPending = new AtomicBoolean(true);
+
+    public TaskDTO move(Long id, TaskMoveDTO data) {
+        var first = transactionTemplate.execute(status -> tryMove(id, data));
+        if (first.task() != null) {
+            return first.task();
+        }
+        // Renumbered in a transaction of its own, the rows of the move are not held meanwhile
+        transactionTemplate.executeWithoutResult(status -> renumber(first.statusId()));
+        var second = transactionTemplate.execute(status -> tryMove(id, data));
+        if (second.task() == null) {
+            throw new BadRequestException("Tasks " + data.getPreviousId() + " and " + data.getNextId()
+                    + " are not adjacent");
+        }
+        return second.task();
+    }
+
+    @Scheduled(fixedDelayString = "#{@taskListProperties.rankRebalanceInterval.toMillis()}")
+    public void rebalance() {
+        if (unrankedPending.getAndSet(false)) {
+            try {
+                rankUnranked();
+            } catch (RuntimeException e) {
+                unrankedPending.set(true);
+                log.warn("Could not rank new tasks", e);
+            }
+        }
+        for (var statusId : List.copyOf(crowdedStatuses)) {
+            crowdedStatuses.remove(statusId);
+            try {
+                transactionTemplate.executeWithoutResult(status -> renumber(statusId));
+            } catch (RuntimeException e) {
+                crowdedStatuses.add(statusId);
+                log.warn("Could not renumber tasks of status {}", statusId, e);
+            }
+        }
+    }
+
+    // New tasks and tasks moved to another column in bulk come without a rank
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTaskChanged(TaskEvent event) {
+        if (event.getTask() != null && event.getTask().getRank() == null) {
+            unrankedPending.set(true);
+        }
+    }
+
+    // Without a task when the neighbours leave no free rank
+    private MoveAttempt tryMove(Long id, TaskMoveDTO data) {
+        var rows = lockRows(id, data);
+        var statusId = resolveStatus(data, rows.get(id), rows);
+        var rank = rankBetween(id, rows.get(data.getPreviousId()), rows.get(data.getNextId()), statusId);
+        if (rank == null) {
+            return new MoveAttempt(null, statusId);
+        }
+
+        var previous = taskSnapshots.find(List.of(id)).get(id);
+        jdbcTemplate.update(MOVE, rank, statusId, id);
+        var task = TaskSnapshots.copy(previous);
+        task.setRank(rank);
+        task.setStatus(slugOf(statusId, data, rows));
+        task.setVersion(previous.getVersion() + 1);
+        eventPublisher.publishEvent(new TaskEvent(TaskEventType.UPDATED, id, task, previous));
+        return new MoveAttempt(task, statusId);
+    }
+
+    private Map<Long, RankedRow> lockRows(Long id, TaskMoveDTO data) {
+        var ids = new ArrayList<Long>();
+        ids.add(id);
+        for (var neighbourId : new Long[] {data.getPreviousId(), data.getNextId()}) {
+            if (neighbourId != null) {
+                if (neighbourId.equals(id)) {
+                    throw new BadRequestException("Task " + id + " cannot be placed next to itself");
+                }
+                ids.add(neighbourId);
+            }
+        }
+
+        var placeholders = String.join(", ", ids.stream().map(ignored -> "?").toList());
+        var rows = new HashMap<Long, RankedRow>();
+        jdbcTemplate.query(LOCK_ROWS.formatted(placeholders), rs -> {
+            var rank = rs.getLong("board_rank");
+            var unranked = rs.wasNull();
+            var row = new RankedRow(rs.getLong("task_status_id"), rs.getString("slug"), unranked ? null : rank);
+            rows.put(rs.getLong("id"), row);
+        }, ids.toArray());
+        for (var rowId : ids) {
+            if (!rows.containsKey(rowId)) {
+                throw new ResourceNotFoundException("Task with id " + rowId + " not found");
+            }
+        }
+        return rows;
+    }
+
+    private String slugOf(Long statusId, TaskMoveDTO data, Map<Long, RankedRow> rows) {
+        if (data.getStatus() != null) {
+            return data.getStatus();
+        }
+        return rows.values().stream()
+                .filter(row -> row.statusId().equals(statusId))
+                .map(RankedRow::slug)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private Long resolveStatus(TaskMoveDTO data, RankedRow moved, Map<Long, RankedRow> rows) {
+        Long statusId;
+        if (data.getStatus() != null) {
+            statusId = taskStatusCache.idOf(data.getStatus());
+        } else if (data.getPreviousId() != null) {
+            statusId = rows.get(data.getPreviousId()).statusId();
+        } else if (data.getNextId() != null) {
+            statusId = rows.get(data.getNextId()).statusId();
+        } else {
+            statusId = moved.statusId();
+        }
+
+        for (var neighbourId : new Long[] {data.getPreviousId(), data.getNextId()}) {
+            if (neighbourId != null && !rows.get(neighbourId).statusId().equals(statusId)) {
+                throw new BadRequestException("Task " + neighbourId + " is in another status");
+            }
+        }
+        return statusId;
+    }
+
+    // Null when the neighbours leave no free rank. A neighbour that is missing, or has no rank yet, leaves that side
+    // open: the bound is looked up so that the task lands right after previous or right before next
+    private Long rankBetween(Long id, RankedRow previousRow, RankedRow nextRow, Long statusId) {
+        var previous = previousRow != null && previousRow.rank() != null ? previousRow : null;
+        var next = nextRow != null && nextRow.rank() != null ? nextRow : null;
+        Long lower;
+        Long upper;
+        if (previous == null && next == null) {
+            lower = jdbcTemplate.queryForObject("SELECT MAX(board_rank) FROM tasks WHERE task_status_id = ? "
+                    + "AND id <> ?", Long.class, statusId, id);
+            upper = null;
+        } else if (next == null) {
+            lower = previous.rank();
+            upper = jdbcTemplate.queryForObject("SELECT MIN(board_rank) FROM tasks WHERE task_status_id = ? "
+                    + "AND id <> ? AND board_rank > ?", Long.class, statusId, id, lower);
+        } else if (previous == null) {
+            upper = next.rank();
+            lower = jdbcTemplate.queryForObject("SELECT MAX(board_rank) FROM tasks WHERE task_status_id = ? "
+                    + "AND id <> ? AND board_rank < ?", Long.class, statusId, id, upper);
+        } else {
+            lower = previous.rank();
+            upper = next.rank();
+        }
+
+        if (upper == null) {
+            return lower == null ? RANK_STEP : lower + RANK_STEP;
+        }
+        if (lower == null) {
+            return upper - RANK_STEP;
+        }
+        var gap = upper - lower;
+        if (gap <= 1) {
+            return null;
+        }
+        if (gap / 2 < MIN_GAP) {
+            crowdedStatuses.add(statusId);
+        }
+        return lower + gap / 2;
+    }
+
+    // Spreads the ranks of a whole column evenly, keeping the current order. Only rows whose rank moves are written
+    private void renumber(Long statusId) {
+        jdbcTemplate.queryForList("SELECT id FROM tasks WHERE task_status_id = ? ORDER BY id FOR UPDATE", Long.class,
+                statusId);
+        var ordered = jdbcTemplate.query("SELECT id, board_rank FROM tasks WHERE task_status_id = ? "
+                + "ORDER BY board_rank NULLS LAST, index NULLS LAST, id", (rs, rowNum) -> {
+                    var rank = rs.getLong("board_rank");
+                    return new RankedId(rs.getLong("id"), rs.wasNull() ? null : rank);
+                }, statusId);
+        var ids = new ArrayList<Long>();
+        var args = new ArrayList<Object[]>();
+        for (var i = 0; i < ordered.size(); i++) {
+            var row = ordered.get(i);
+            var rank = (i + 1) * RANK_STEP;
+            if (!Objects.equals(row.rank(), rank)) {
+                ids.add(row.id());
+                args.add(new Object[] {rank, row.id()});
+            }
+        }
+        updateRanks(ids, args);
+        log.debug("Renumbered {} tasks of status {}", ids.size(), statusId);
+    }
+
+    // Appends tasks without a rank to the end of their column, in index order
+    private void rankUnranked() {
+        var unranked = new LinkedHashMap<Long, List<Long>>();
+        jdbcTemplate.query("SELECT id, task_status_id FROM tasks WHERE board_rank IS NULL "
+                + "ORDER BY task_status_id, index NULLS LAST, id", rs -> {
+                    unranked.computeIfAbsent(rs.getLong("task_status_id"), key -> new ArrayList<>())
+                            .add(rs.getLong("id"));
+                });
+
+        unranked.forEach((statusId, candidates) -> transactionTemplate.executeWithoutResult(status -> {
+            // A concurrent move may have ranked or moved some of them already
+            var locked = new HashSet<>(jdbcTemplate.query("SELECT id FROM tasks WHERE id = ANY(?) "
+                    + "AND task_status_id = ? AND board_rank IS NULL ORDER BY id FOR UPDATE", ps -> {
+                        ps.setArray(1, ps.getConnection().createArrayOf("bigint", candidates.toArray()));
+                        ps.setLong(2, statusId);
+                    }, (rs, rowNum) -> rs.getLong("id")));
+            var last = jdbcTemplate.queryForObject("SELECT MAX(board_rank) FROM tasks WHERE task_status_id = ?",
+                    Long.class, statusId);
+            var rank = Objects.requireNonNullElse(last, 0L);
+            var ids = new ArrayList<Long>();
+            var args = new ArrayList<Object[]>();
+            for (var id : candidates) {
+                if (locked.contains(id)) {
+                    rank += RANK_STEP;
+                    ids.add(id);
+                    args.add(new Object[] {rank, id});
+                }
+            }
+            updateRanks(ids, args);
+        }));
+    }
+
+    private void updateRanks(List<Long> ids, List<Object[]> args) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        var previous = taskSnapshots.find(ids);
+        jdbcTemplate.batchUpdate(UPDATE_RANK, args);
+        var current = taskSnapshots.find(ids);
+        current.forEach((id, task) -> eventPublisher.publishEvent(
+                new TaskEvent(TaskEventType.UPDATED, id, task, previous.get(id))));
+    }
+
+    private record RankedRow(Long statusId, String slug, Long rank) {
+    }
+
+    private record RankedId(Long id, Long rank) {
+    }
+
+    private record MoveAttempt(TaskDTO task, Long statusId) {
+    }
+}
@@ -0,0 +1,80 @@
+package hexlet.code.service;
+
+import hexlet.code.dto.task.TaskDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Tasks as they are published with their events, read with two flat queries instead of loading the entities.
+// Used by the services that change tasks with plain statements
+@Service
+public class TaskSnapshots {
+
+    private static final String SNAPSHOT = "SELECT t.id, t.version, t.index, t.board_rank, t.created_at, t.name, "
+            + "t.description, t.assignee_id, s.slug FROM tasks t JOIN task_statuses s ON s.id = t.task_status_id "
+            + "WHERE t.id = ANY(?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Ordered by id, tasks that do not exist are left out
+    public Map<Long, TaskDTO> find(List<Long> ids) {
+        var tasks = new LinkedHashMap<Long, TaskDTO>();
+        if (ids.isEmpty()) {
+            return tasks;
+        }
+        jdbcTemplate.query(SNAPSHOT + " ORDER BY t.id", ps -> setIds(ps, ids), (RowCallbackHandler) rs -> {
+            var task = new TaskDTO();
+            task.setId(rs.getLong("id"));
+            task.setVersion(rs.getLong("version"));
+            task.setIndex(nullableLong(rs, "index"));
+            task.setRank(nullableLong(rs, "board_rank"));
+            task.setCreatedAt(rs.getObject("created_at", LocalDate.class));
+            task.setTitle(rs.getString("name"));
+            task.setContent(rs.getString("description"));
+            task.setAssigneeId(nullableLong(rs, "assignee_id"));
+            task.setStatus(rs.getString("slug"));
+            task.setTaskLabelIds(new HashSet<>());
+            tasks.put(task.getId(), task);
+        });
+        jdbcTemplate.query("SELECT tasks_id, labels_id FROM tasks_labels WHERE tasks_id = ANY(?)",
+                ps -> setIds(ps, ids), (RowCallbackHandler) rs -> {
+                    tasks.get(rs.getLong("tasks_id")).getTaskLabelIds().add(rs.getLong("labels_id"));
+                });
+        return tasks;
+    }
+
+    public static TaskDTO copy(TaskDTO source) {
+        var task = new TaskDTO();
+        task.setId(source.getId());
+        task.setVersion(source.getVersion());
+        task.setIndex(source.getIndex());
+        task.setRank(source.getRank());
+        task.setCreatedAt(source.getCreatedAt());
+        task.setTitle(source.getTitle());
+        task.setContent(source.getContent());
+        task.setAssigneeId(source.getAssigneeId());
+        task.setStatus(source.getStatus());
+        task.setTaskLabelIds(new HashSet<>(source.getTaskLabelIds()));
+        return task;
+    }
+
+    private static void setIds(PreparedStatement ps, List<Long> ids) throws SQLException {
+        ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray()));
+    }
+
+    private static Long nullableLong(ResultSet rs, String column) throws SQLException {
+        var value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    }
+}
@@ -1,25 +1,69 @@
 package hexlet.code.service;
 
+import hexlet.code.component.TaskFacetIndex;
+import hexlet.code.component.TaskListProperties;
+import hexlet.code.component.TaskReferenceViolations;
+import hexlet.code.component.TaskSearchIndex;
+import hexlet.code.dto.page.CountMode;
+import hexlet.code.dto.page.PageDTO;
+import hexlet.code.dto.page.PageParamsDTO;
+import hexlet.code.dto.task.LabelMatch;
 import hexlet.code.dto.task.TaskCreateDTO;
 import hexlet.code.dto.task.TaskDTO;
 import hexlet.code.dto.task.TaskParamsDTO;
-import hexlet.code.dto.task.TaskUpdateDTO;
+import hexlet.code.event.TaskEvent;
+import hexlet.code.event.TaskEventType;
+import hexlet.code.exception.BadRequestException;
 import hexlet.code.exception.ResourceNotFoundException;
 import hexlet.code.mapper.TaskMapper;
+import hexlet.code.model.Task;
 import hexlet.code.repository.LabelRepository;
 import hexlet.code.repository.TaskRepository;
 import hexlet.code.repository.TaskStatusRepository;
 import hexlet.code.repository.UserRepository;
 import hexlet.code.specification.task.TaskSpecification;
+import hexlet.code.util.EntityTags;
+import hexlet.code.util.OffsetPageRequest;
+import hexlet.code.util.SingleFlight;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import jakarta.transaction.Transactional;
+import org.roaringbitmap.RoaringBitmap;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class TasksService {
 
+    private static final Map<String, String> SORTABLE_FIELDS = Map.of(
+            "id", "id",
+            "index", "index",
+            "rank", "rank",
+            "title", "name",
+            "content", "description",
+            "status", "taskStatus.slug",
+            "assignee_id", "assignee.id",
+            "createdAt", "createdAt"
+    );
+
     @Autowired
     private TaskRepository taskRepository;
 
@@ -38,14 +82,152 @@ public class TasksService {
     @Autowired
     private TaskSpecification taskSpecification;
 
-    public List<TaskDTO> getAll(TaskParamsDTO params) {
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TaskCountService taskCountService;
+
+    @Autowired
+    private TaskListProperties properties;
+
+    @Autowired
+    private TaskFacetIndex taskFacetIndex;
+
+    @Autowired
+    private TaskSearchIndex taskSearchIndex;
+
+    @Autowired
+    private TaskReferenceViolations taskReferenceViolations;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private SingleFlight<ListQuery, PageDTO<TaskDTO>> listQueries;
+    // Bumped after every committed task change, so that a read started before the change is not handed
+    // to a caller that arrives after it
+    private final AtomicLong generation = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        listQueries = new SingleFlight<>(properties.getCoalesceTtl());
+        FunctionCounter.builder("tasks.list.coalesced", listQueries, SingleFlight::sharedCount)
+                .description("List requests answered by an identical query already in flight")
+                .register(meterRegistry);
+        Gauge.builder("tasks.list.in_flight", listQueries, SingleFlight::inFlight)
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTaskChanged(TaskEvent event) {
+        generation.incrementAndGet();
+    }
+
+    public PageDTO<TaskDTO> getAll(TaskParamsDTO params, PageParamsDTO page) {
+        var pageable = OffsetPageRequest.of(page, SORTABLE_FIELDS);
+        var mode = page.getCount() != null ? page.getCount() : properties.getCountMode();
+        if (!properties.isCoalesceQueries()) {
+            return load(params, pageable, mode);
+        }
+        // Identical board and list requests tend to arrive together, they share one query
+        var key = ListQuery.of(params, pageable, mode, generation.get());
+        return listQueries.execute(key, () -> load(params, pageable, mode));
+    }
+
+    private PageDTO<TaskDTO> load(TaskParamsDTO params, Pageable pageable, CountMode mode) {
         var specification = taskSpecification.build(params);
-        var tasks = taskRepository.findAll(specification);
-        return tasks.stream()
+
+        if (pageable.isPaged() && isOrderedById(pageable.getSort())) {
+            var matching = taskFacetIndex.match(params);
+            if (matching != null) {
+                return pageOf(matching, pageable);
+            }
+        }
+
+        if (mode == CountMode.NONE && pageable.isPaged()) {
+            // One row past the page tells the client whether there is a next page, without counting
+            var probe = new OffsetPageRequest(pageable.getOffset(), pageable.getPageSize() + 1, pageable.getSort());
+            var tasks = taskRepository.findSlice(specification, probe);
+            var dtos = tasks.stream()
+                    .limit(pageable.getPageSize())
+                    .map(taskMapper::map)
+                    .toList();
+            return new PageDTO<>(dtos, pageable.getOffset() + tasks.size());
+        }
+
+        var dtos = taskRepository.findSlice(specification, pageable).stream()
+                .map(taskMapper::map)
+                .toList();
+        if (pageable.isUnpaged()) {
+            return new PageDTO<>(dtos, (long) dtos.size());
+        }
+        // A short page already tells the exact total
+        if (dtos.size() < pageable.getPageSize() && (!dtos.isEmpty() || pageable.getOffset() == 0)) {
+            return new PageDTO<>(dtos, pageable.getOffset() + dtos.size());
+        }
+        var total = taskCountService.count(params, specification, mode);
+        return new PageDTO<>(dtos, total);
+    }
+
+    // The facet index answers the filter and the total, only the ids of the page are read from the database
+    private PageDTO<TaskDTO> pageOf(RoaringBitmap matching, Pageable pageable) {
+        var total = matching.getLongCardinality();
+        var descending = pageable.getSort().iterator().next().isDescending();
+        var ids = new ArrayList<Long>();
+        for (var i = pageable.getOffset(); i < Math.min(total, pageable.getOffset() + pageable.getPageSize()); i++) {
+            ids.add((long) matching.select((int) (descending ? total - 1 - i : i)));
+        }
+
+        return new PageDTO<>(findInOrder(ids), total);
+    }
+
+    // Ranked by relevance, the sort of the request does not apply. Without a range the best matches are returned
+    public PageDTO<TaskDTO> search(String text, TaskParamsDTO params, PageParamsDTO page) {
+        if (!taskSearchIndex.isEnabled()) {
+            throw new BadRequestException("Full-text search is disabled");
+        }
+        if (text == null || text.isBlank()) {
+            throw new BadRequestException("The search text q is required");
+        }
+        if (params.hasTitleCont()) {
+            throw new BadRequestException("titleCont does not apply to a search, put the words into q");
+        }
+        var pageable = OffsetPageRequest.of(page, SORTABLE_FIELDS);
+        var offset = pageable.isPaged() ? (int) pageable.getOffset() : 0;
+        var limit = pageable.isPaged() ? pageable.getPageSize() : properties.getSearchMaxResults();
+        var hits = taskSearchIndex.search(text, params, offset, limit);
+        return new PageDTO<>(findInOrder(hits.ids()), hits.total());
+    }
+
+    private List<TaskDTO> findInOrder(List<Long> ids) {
+        var tasks = taskRepository.findAllByIdIn(ids).stream()
+                .collect(Collectors.toMap(Task::getId, Function.identity()));
+        return ids.stream()
+                .map(tasks::get)
+                .filter(Objects::nonNull)
                 .map(taskMapper::map)
                 .toList();
     }
 
+    private static boolean isOrderedById(Sort sort) {
+        return sort.stream().allMatch(order -> order.getProperty().equals("id"));
+    }
+
+    // The filter as the queries see it: merged and sorted values, statuses as collectStatuses gives them, and one label
+    // matching the same way under ANY and ALL
+    private record ListQuery(String titleCont, Set<Long> assigneeIds, Set<String> statuses, Set<Long> labelIds,
+            LabelMatch labelMatch, long offset, int limit, Sort sort, CountMode mode, long generation) {
+
+        static ListQuery of(TaskParamsDTO params, Pageable pageable, CountMode mode, long generation) {
+            var statuses = new TreeSet<>(params.collectStatuses());
+            var labelIds = new TreeSet<>(params.collectLabelIds());
+            var labelMatch = labelIds.size() > 1 ? params.getLabelMatch() : LabelMatch.ANY;
+            return new ListQuery(params.getTitleCont(), new TreeSet<>(params.collectAssigneeIds()), statuses,
+                    labelIds, labelMatch, pageable.isPaged() ? pageable.getOffset() : -1,
+                    pageable.isPaged() ? pageable.getPageSize() : -1, pageable.getSort(), mode, generation);
+        }
+    }
+
     public TaskDTO getById(long id) {
         var task = taskRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Task with id " + id + " not found"));
@@ -55,20 +237,24 @@ public class TasksService {
     @Transactional
     public TaskDTO create(TaskCreateDTO data) {
         var task = taskMapper.map(data);
-        taskRepository.save(task);
-        return taskMapper.map(task);
+        try {
+            taskRepository.save(task);
+        } catch (DataIntegrityViolationException e) {
+            throw taskReferenceViolations.toException(e,
+                    task.getAssignee() != null ? task.getAssignee().getId() : null, task.getTaskStatus().getId());
+        }
+        var dto = taskMapper.map(task);
+        eventPublisher.publishEvent(new TaskEvent(TaskEventType.CREATED, dto.getId(), dto, null));
+        return dto;
     }
 
     @Transactional
-    public TaskDTO update(TaskUpdateDTO data, Long id) {
-        var task = taskRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Task with id " + id + " not found"));
-        taskMapper.update(data, task);
-        taskRepository.save(task);
-        return taskMapper.map(task);
-    }
-
-    public void delete(Long id) {
-        taskRepository.deleteById(id);
+    public void delete(Long id, Long expectedVersion) {
+        taskRepository.findById(id).ifPresent(task -> {
+            EntityTags.check(expectedVersion, task.getVersion(), "Task " + id);
+            var previous = taskMapper.map(task);
+            taskRepository.delete(task);
+            eventPublisher.publishEvent(new TaskEvent(TaskEventType.DELETED, id, null, previous));
+        });
     }
 }
@@ -0,0 +1,281 @@
+package hexlet.code.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hexlet.code.component.UserImportProperties;
+import hexlet.code.dto.user.UserCreateDTO;
+import hexlet.code.dto.user.UserImportErrorDTO;
+import hexlet.code.dto.user.UserImportResultDTO;
+import hexlet.code.exception.BadRequestException;
+import hexlet.code.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+// Streams users from the request body and imports them in chunks, so only one chunk is held in memory. Chunks are
+// committed as they fill up, so input that turns out malformed at some row does not fail the request: the rows before
+// it are imported and the row is reported as an error
+@Service
+public class UserImportService {
+
+    private static final String INSERT_SQL = "INSERT INTO users "
+            + "(email, first_name, last_name, encrypted_password, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper om;
+
+    @Autowired
+    private UserImportProperties properties;
+
+    // BCrypt is CPU bound, so hashing gets its own pool sized to the cores instead of the common pool
+    private final ForkJoinPool hashingPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    @PreDestroy
+    public void shutdown() {
+        hashingPool.shutdown();
+    }
+
+    public UserImportResultDTO importJson(InputStream input) throws IOException {
+        var result = new UserImportResultDTO();
+        var chunk = new ArrayList<Row>(properties.getChunkSize());
+        UserImportErrorDTO stop = null;
+        try (var parser = om.getFactory().createParser(input)) {
+            if (nextToken(parser) != JsonToken.START_ARRAY) {
+                throw new BadRequestException("Expected a JSON array of users");
+            }
+            long rowNumber = 0;
+            try {
+                JsonToken token;
+                while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+                    var data = om.readValue(parser, UserCreateDTO.class);
+                    chunk.add(new Row(++rowNumber, data));
+                    if (chunk.size() == properties.getChunkSize()) {
+                        importChunk(chunk, result);
+                        chunk.clear();
+                    }
+                }
+                if (token != JsonToken.END_ARRAY) {
+                    stop = stopped(rowNumber + 1, "Expected a user object");
+                }
+            } catch (JsonProcessingException e) {
+                stop = stopped(rowNumber + 1, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+        importChunk(chunk, result);
+        if (stop != null) {
+            result.getErrors().add(stop);
+        }
+        return result;
+    }
+
+    // Nothing is imported yet when the input does not start as an array, that is a bad request
+    private static JsonToken nextToken(JsonParser parser) throws IOException {
+        try {
+            return parser.nextToken();
+        } catch (JsonProcessingException e) {
+            throw new BadRequestException("Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    public UserImportResultDTO importCsv(Reader input) throws IOException {
+        var result = new UserImportResultDTO();
+        var reader = new BufferedReader(input);
+        var header = reader.readLine();
+        if (header == null) {
+            return result;
+        }
+        var columns = new HashMap<String, Integer>();
+        var names = parseCsvLine(header);
+        if (names == null) {
+            throw new BadRequestException("Unterminated quoted value in the CSV header");
+        }
+        for (var i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().replace("_", "").toLowerCase(), i);
+        }
+        if (!columns.containsKey("email") || !columns.containsKey("password")) {
+            throw new BadRequestException("CSV header must contain email and password columns");
+        }
+
+        var chunk = new ArrayList<Row>(properties.getChunkSize());
+        long rowNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            rowNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            var values = parseCsvLine(line);
+            if (values == null) {
+                result.getErrors().add(new UserImportErrorDTO(rowNumber, null, "Unterminated quoted value"));
+                continue;
+            }
+            var data = new UserCreateDTO();
+            data.setEmail(column(values, columns, "email"));
+            data.setFirstName(column(values, columns, "firstname"));
+            data.setLastName(column(values, columns, "lastname"));
+            data.setPassword(column(values, columns, "password"));
+            chunk.add(new Row(rowNumber, data));
+            if (chunk.size() == properties.getChunkSize()) {
+                importChunk(chunk, result);
+                chunk.clear();
+            }
+        }
+        importChunk(chunk, result);
+        return result;
+    }
+
+    private void importChunk(List<Row> chunk, UserImportResultDTO result) {
+        var candidates = new ArrayList<Row>();
+        var emails = new HashSet<String>();
+        for (var row : chunk) {
+            var violations = validator.validate(row.data());
+            if (!violations.isEmpty()) {
+                result.getErrors().add(error(row, describe(violations)));
+            } else if (!emails.add(row.data().getEmail())) {
+                result.getErrors().add(error(row, "Duplicate email in import"));
+            } else {
+                candidates.add(row);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        var existing = new HashSet<>(userRepository.findExistingEmails(emails));
+        var rows = new ArrayList<Row>();
+        for (var row : candidates) {
+            if (existing.contains(row.data().getEmail())) {
+                result.getErrors().add(error(row, "Email already exists"));
+            } else {
+                rows.add(row);
+            }
+        }
+
+        var hashes = hashingPool.submit(() -> rows.parallelStream()
+                .map(row -> passwordEncoder.encode(row.data().getPassword()))
+                .toList())
+                .join();
+        insert(rows, hashes, result);
+    }
+
+    private void insert(List<Row> rows, List<String> hashes, UserImportResultDTO result) {
+        var now = LocalDate.now();
+        var args = new ArrayList<Object[]>(rows.size());
+        for (var i = 0; i < rows.size(); i++) {
+            var data = rows.get(i).data();
+            args.add(new Object[] {data.getEmail(), data.getFirstName(), data.getLastName(), hashes.get(i), now, now});
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, args));
+            result.setImported(result.getImported() + rows.size());
+        } catch (DuplicateKeyException e) {
+            // Someone else took one of the emails after the existence check, retry row by row to find out which
+            for (var i = 0; i < rows.size(); i++) {
+                try {
+                    jdbcTemplate.update(INSERT_SQL, args.get(i));
+                    result.setImported(result.getImported() + 1);
+                } catch (DuplicateKeyException ex) {
+                    result.getErrors().add(error(rows.get(i), "Email already exists"));
+                }
+            }
+        }
+    }
+
+    // The parser cannot resume after a malformed row, the rest of the input is not read
+    private static UserImportErrorDTO stopped(long rowNumber, String message) {
+        return new UserImportErrorDTO(rowNumber, null, message + ". The rows after it were not imported");
+    }
+
+    private static UserImportErrorDTO error(Row row, String message) {
+        return new UserImportErrorDTO(row.number(), row.data().getEmail(), message);
+    }
+
+    private static String describe(Set<ConstraintViolation<UserCreateDTO>> violations) {
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static String column(List<String> values, Map<String, Integer> columns, String name) {
+        var index = columns.get(name);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        var value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // Null when a quoted value is not closed on the line
+    private static List<String> parseCsvLine(String line) {
+        var values = new ArrayList<String>();
+        var current = new StringBuilder();
+        var quoted = false;
+        for (var i = 0; i < line.length(); i++) {
+            var c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private record Row(long number, UserCreateDTO data) {
+    }
+}
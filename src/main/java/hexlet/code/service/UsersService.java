@@ -1,34 +1,48 @@
 package hexlet.code.service;
 
+import hexlet.code.dto.page.PageDTO;
+import hexlet.code.dto.page.PageParamsDTO;
 import hexlet.code.dto.user.UserCreateDTO;
 import hexlet.code.dto.user.UserDTO;
 import hexlet.code.dto.user.UserUpdateDTO;
 import hexlet.code.exception.ResourceNotFoundException;
 import hexlet.code.mapper.UserMapper;
 import hexlet.code.repository.UserRepository;
+import hexlet.code.util.EntityTags;
+import hexlet.code.util.OffsetPageRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
+import java.util.Map;
 
 @Service
 public class UsersService {
 
+    private static final Map<String, String> SORTABLE_FIELDS = Map.of(
+            "id", "id",
+            "email", "email",
+            "firstName", "firstName",
+            "lastName", "lastName",
+            "createdAt", "createdAt"
+    );
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
     @Autowired
     private UserMapper userMapper;
 
-    public List<UserDTO> getAll() {
-        var users = userRepository.findAll();
-        return users.stream()
-                .map(userMapper::map)
-                .toList();
+    // Limit, offset and order go to the database, the count only runs when the page does not tell the total
+    public PageDTO<UserDTO> getAll(PageParamsDTO page) {
+        var users = userRepository.findAll(OffsetPageRequest.of(page, SORTABLE_FIELDS));
+        return new PageDTO<>(users.map(userMapper::map).getContent(), users.getTotalElements());
     }
 
     public UserDTO getById(Long id) {
@@ -45,22 +59,33 @@ public class UsersService {
         return userMapper.map(user);
     }
 
-    public UserDTO update(UserUpdateDTO data, Long id) {
+    public UserDTO update(UserUpdateDTO data, Long id, Long expectedVersion) {
         var user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User with id " + id + " not found"));
+        EntityTags.check(expectedVersion, user.getVersion(), "User " + id);
 
         userMapper.update(data, user);
 
         if (data.getPassword() != null) {
             var hashedPassword = passwordEncoder.encode(user.getPassword());
             user.setEncryptedPassword(hashedPassword);
+            refreshTokenService.revokeAll(id);
         }
 
         userRepository.save(user);
         return userMapper.map(user);
     }
 
-    public void delete(Long id) {
-        userRepository.deleteById(id);
+    public void delete(Long id, Long expectedVersion) {
+        if (expectedVersion == null) {
+            userRepository.deleteById(id);
+            refreshTokenService.revokeAll(id);
+            return;
+        }
+        userRepository.findById(id).ifPresent(user -> {
+            EntityTags.check(expectedVersion, user.getVersion(), "User " + id);
+            userRepository.delete(user);
+            refreshTokenService.revokeAll(id);
+        });
     }
 }
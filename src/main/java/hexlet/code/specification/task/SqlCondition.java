@@ -0,0 +1,14 @@
+package hexlet.code.specification.task;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class SqlCondition {
+    // Boolean SQL expression over the tasks table aliased as t, never empty
+    private String sql;
+    private List<Object> args;
+}
@@ -1,41 +1,79 @@
 package hexlet.code.specification.task;
 
+import hexlet.code.dto.task.LabelMatch;
 import hexlet.code.dto.task.TaskParamsDTO;
+import hexlet.code.model.Label;
 import hexlet.code.model.Task;
+import hexlet.code.model.TaskStatus;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 
+import java.util.Set;
+
+// Collection filters are semi-joins (IN / EXISTS subqueries), joining labels would repeat a task once per
+// matching label
 @Component
 public class TaskSpecification {
     public Specification<Task> build(TaskParamsDTO params) {
-        return withTitleCont(params.getTitleCont())
-                .and(withAssigneeId(params.getAssigneeId()))
-                .and(withStatus(params.getStatus()))
-                .and(withLabelId(params.getLabelId()));
+        return withTitleCont(params)
+                .and(withAssigneeIds(params.collectAssigneeIds()))
+                .and(withStatuses(params.collectStatuses()))
+                .and(withLabelIds(params.collectLabelIds(), params.getLabelMatch()));
     }
 
-    private Specification<Task> withTitleCont(String str) {
+    private Specification<Task> withTitleCont(TaskParamsDTO params) {
         return (root, query, cb) -> {
-            if (str == null) {
+            if (!params.hasTitleCont()) {
                 return cb.conjunction();
             } else {
-                String pattern = "%" + str.toLowerCase() + "%";
-                return cb.like(cb.lower(root.get("name")), pattern);
+                return cb.like(cb.lower(root.get("name")), params.titleContPattern(), '\\');
             }
         };
     }
 
-    private Specification<Task> withAssigneeId(Long id) {
-        return (root, query, cb) -> id == null ? cb.conjunction() : cb.equal(root.get("assignee").get("id"), id);
+    private Specification<Task> withAssigneeIds(Set<Long> ids) {
+        return (root, query, cb) -> ids.isEmpty() ? cb.conjunction() : root.get("assignee").get("id").in(ids);
+    }
+
+    private Specification<Task> withStatuses(Set<String> slugs) {
+        return (root, query, cb) -> {
+            if (slugs.isEmpty()) {
+                return cb.conjunction();
+            }
+            var subquery = query.subquery(Long.class);
+            var status = subquery.from(TaskStatus.class);
+            subquery.select(status.get("id")).where(cb.lower(status.get("slug")).in(slugs));
+            return root.get("taskStatus").get("id").in(subquery);
+        };
     }
 
-    private Specification<Task> withStatus(String slug) {
+    private Specification<Task> withLabelIds(Set<Long> ids, LabelMatch match) {
         return (root, query, cb) -> {
-            return slug == null ? cb.conjunction() : cb.equal(cb.lower(root.get("taskStatus").get("slug")), slug);
+            if (ids.isEmpty()) {
+                return cb.conjunction();
+            }
+            if (match == LabelMatch.ALL) {
+                // One EXISTS per label, each one is a primary key lookup in the join table
+                var predicates = ids.stream()
+                        .map(id -> cb.exists(labelSubquery(root, query, cb, Set.of(id))))
+                        .toArray(Predicate[]::new);
+                return cb.and(predicates);
+            }
+            return cb.exists(labelSubquery(root, query, cb, ids));
         };
     }
 
-    private Specification<Task> withLabelId(Long id) {
-        return (root, query, cb) -> id == null ? cb.conjunction() : cb.equal(root.get("labels").get("id"), id);
+    private Subquery<Long> labelSubquery(Root<Task> root, CriteriaQuery<?> query, CriteriaBuilder cb,
+            Set<Long> ids) {
+        var subquery = query.subquery(Long.class);
+        var task = subquery.correlate(root);
+        var label = task.<Task, Label>join("labels");
+        subquery.select(label.get("id")).where(label.get("id").in(ids));
+        return subquery;
     }
 }
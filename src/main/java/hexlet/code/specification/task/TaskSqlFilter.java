@@ -0,0 +1,55 @@
+package hexlet.code.specification.task;
+
+import hexlet.code.dto.task.LabelMatch;
+import hexlet.code.dto.task.TaskParamsDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+
+// Native SQL counterpart of TaskSpecification for statements JPA criteria cannot express,
+// both must apply the same filters
+@Component
+public class TaskSqlFilter {
+
+    private static final String HAS_LABEL = "EXISTS (SELECT 1 FROM tasks_labels tl WHERE tl.tasks_id = t.id "
+            + "AND tl.labels_id %s)";
+
+    public SqlCondition build(TaskParamsDTO params) {
+        var conditions = new ArrayList<String>();
+        var args = new ArrayList<Object>();
+        conditions.add("1 = 1");
+
+        if (params.hasTitleCont()) {
+            conditions.add("LOWER(t.name) LIKE ? ESCAPE '\\'");
+            args.add(params.titleContPattern());
+        }
+        var assigneeIds = params.collectAssigneeIds();
+        if (!assigneeIds.isEmpty()) {
+            conditions.add("t.assignee_id " + in(assigneeIds));
+            args.addAll(assigneeIds);
+        }
+        var statuses = params.collectStatuses();
+        if (!statuses.isEmpty()) {
+            conditions.add("t.task_status_id IN (SELECT s.id FROM task_statuses s WHERE LOWER(s.slug) "
+                    + in(statuses) + ")");
+            args.addAll(statuses);
+        }
+        var labelIds = params.collectLabelIds();
+        if (!labelIds.isEmpty() && params.getLabelMatch() == LabelMatch.ALL) {
+            for (var labelId : labelIds) {
+                conditions.add(HAS_LABEL.formatted("= ?"));
+                args.add(labelId);
+            }
+        } else if (!labelIds.isEmpty()) {
+            conditions.add(HAS_LABEL.formatted(in(labelIds)));
+            args.addAll(labelIds);
+        }
+        return new SqlCondition(String.join(" AND ", conditions), args);
+    }
+
+    private static String in(Collection<?> values) {
+        return values.size() == 1 ? "= ?" : "IN (" + String.join(", ", Collections.nCopies(values.size(), "?")) + ")";
+    }
+}
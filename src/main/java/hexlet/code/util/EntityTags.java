@@ -0,0 +1,33 @@
+package hexlet.code.util;
+
+import hexlet.code.exception.PreconditionFailedException;
+
+// Entity versions as HTTP entity tags, e.g. version 3 is sent as ETag "3"
+public class EntityTags {
+
+    public static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    // Null when the request has no If-Match header or accepts any version
+    public static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        var tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        try {
+            return Long.parseLong(tag.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match " + ifMatch + " does not match any version");
+        }
+    }
+
+    public static void check(Long expectedVersion, Long actualVersion, String resource) {
+        if (expectedVersion != null && !expectedVersion.equals(actualVersion)) {
+            throw new PreconditionFailedException(resource + " was modified, current version is " + actualVersion);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package hexlet.code.util;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.jca.JCAContext;
+import com.nimbusds.jose.proc.JWSVerifierFactory;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import java.security.Key;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+public final class JwsDecoders {
+
+    private JwsDecoders() {
+    }
+
+    // Accepts tokens signed by any of the keys, each key only for its own algorithm
+    public static NimbusJwtDecoder of(Supplier<List<JwtKey>> keys) {
+        var processor = new DefaultJWTProcessor<SecurityContext>();
+        // Only the keys of the algorithm named in the token are tried, so a token cannot pick its own algorithm.
+        // Tokens issued before key ids were added have none and are tried against every key of the algorithm
+        processor.setJWSKeySelector((header, context) -> keys.get().stream()
+                .filter(key -> key.getAlgorithm().equals(header.getAlgorithm()))
+                .filter(key -> header.getKeyID() == null || key.getKid().equals(header.getKeyID()))
+                .map(SelectedKey::new)
+                .toList());
+        processor.setJWSVerifierFactory(new KeyVerifierFactory());
+        // Expiry and the other claims are checked by the validators of NimbusJwtDecoder
+        processor.setJWTClaimsSetVerifier((claims, context) -> { });
+        return new NimbusJwtDecoder(processor);
+    }
+
+    // The selected key carries its verifier along, so the key set may be refreshed between selection and
+    // verification without the token failing
+    private record SelectedKey(JwtKey key) implements Key {
+
+        @Override
+        public String getAlgorithm() {
+            return key.getPublicKey().getAlgorithm();
+        }
+
+        @Override
+        public String getFormat() {
+            return key.getPublicKey().getFormat();
+        }
+
+        @Override
+        public byte[] getEncoded() {
+            return key.getPublicKey().getEncoded();
+        }
+    }
+
+    // Hands out the verifier prepared with each key instead of building one per token
+    private static final class KeyVerifierFactory implements JWSVerifierFactory {
+
+        private final JCAContext jcaContext = new JCAContext();
+
+        @Override
+        public JWSVerifier createJWSVerifier(JWSHeader header, Key key) throws JOSEException {
+            if (key instanceof SelectedKey selected) {
+                return selected.key().verifier();
+            }
+            throw new JOSEException("Unknown verification key");
+        }
+
+        @Override
+        public Set<JWSAlgorithm> supportedJWSAlgorithms() {
+            return Set.of(JWSAlgorithm.RS256, JWSAlgorithm.RS384, JWSAlgorithm.RS512, JWSAlgorithm.PS256,
+                    JWSAlgorithm.PS384, JWSAlgorithm.PS512, JWSAlgorithm.ES256, JWSAlgorithm.ES384,
+                    JWSAlgorithm.ES512, JWSAlgorithm.EdDSA);
+        }
+
+        @Override
+        public JCAContext getJCAContext() {
+            return jcaContext;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package hexlet.code.util;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtEncodingException;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.function.Supplier;
+
+// Signs with whatever JwtKey is current, NimbusJwtEncoder cannot select Ed25519 keys
+public class JwsEncoder implements JwtEncoder {
+
+    private final Supplier<JwtKey> keys;
+
+    public JwsEncoder(Supplier<JwtKey> keys) {
+        this.keys = keys;
+    }
+
+    @Override
+    public Jwt encode(JwtEncoderParameters parameters) {
+        var key = keys.get();
+        var header = new JWSHeader.Builder(key.getAlgorithm())
+                .type(JOSEObjectType.JWT)
+                .keyID(key.getKid())
+                .build();
+        var claims = parameters.getClaims();
+        var builder = new JWTClaimsSet.Builder();
+        claims.getClaims().forEach((name, value) ->
+                builder.claim(name, value instanceof Instant instant ? Date.from(instant) : value));
+
+        var jwt = new SignedJWT(header, builder.build());
+        try {
+            jwt.sign(key.signer());
+        } catch (JOSEException e) {
+            throw new JwtEncodingException("Failed to sign the token", e);
+        }
+        return new Jwt(jwt.serialize(), claims.getIssuedAt(), claims.getExpiresAt(), header.toJSONObject(),
+                claims.getClaims());
+    }
+}
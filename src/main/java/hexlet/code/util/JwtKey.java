@@ -0,0 +1,222 @@
+package hexlet.code.util;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jca.JCAContext;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.util.Base64URL;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.EdECKey;
+import java.security.interfaces.RSAPublicKey;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.Set;
+
+// A JWS signing key. The private half is missing for keys that only verify tokens issued before a rotation.
+// Ed25519 goes through the JDK provider, Nimbus would need Tink for it
+@Getter
+public class JwtKey {
+
+    private final JWSAlgorithm algorithm;
+    private final PublicKey publicKey;
+    private final PrivateKey privateKey;
+    // RFC 7638 thumbprint of the public key, the same on every node that has the key
+    private final String kid;
+    private final JWK publicJwk;
+    // Signers keep no per-call state, so one is built up front
+    @Getter(AccessLevel.NONE)
+    private final JWSSigner signer;
+    @Getter(AccessLevel.NONE)
+    private final JWSVerifier verifier;
+
+    // The algorithm follows from the key unless given, RSA keys may pick another RS or PS variant
+    public JwtKey(PublicKey publicKey, PrivateKey privateKey, String algorithm) {
+        this.publicKey = publicKey;
+        this.privateKey = privateKey;
+        var natural = algorithmOf(publicKey);
+        if (algorithm == null || algorithm.isBlank()) {
+            this.algorithm = natural;
+        } else {
+            this.algorithm = JWSAlgorithm.parse(algorithm);
+            var sameFamily = JWSAlgorithm.Family.RSA.contains(natural)
+                    ? JWSAlgorithm.Family.RSA.contains(this.algorithm)
+                    : natural.equals(this.algorithm);
+            if (!sameFamily) {
+                throw new IllegalArgumentException(algorithm + " cannot be used with a " + natural + " key");
+            }
+        }
+        this.signer = privateKey == null ? null : createSigner(privateKey);
+        this.verifier = createVerifier(publicKey);
+        try {
+            var jwk = createJwk(publicKey);
+            this.kid = jwk.computeThumbprint().toString();
+            var json = jwk.toJSONObject();
+            json.put("kid", kid);
+            json.put("alg", this.algorithm.getName());
+            json.put("use", KeyUse.SIGNATURE.identifier());
+            this.publicJwk = JWK.parse(json);
+        } catch (JOSEException | ParseException e) {
+            throw new IllegalArgumentException("Cannot describe the key as a JWK", e);
+        }
+    }
+
+    public JWSSigner signer() {
+        if (signer == null) {
+            throw new IllegalStateException("The " + algorithm + " key has no private key to sign with");
+        }
+        return signer;
+    }
+
+    public JWSVerifier verifier() {
+        return verifier;
+    }
+
+    private static JWSSigner createSigner(PrivateKey privateKey) {
+        try {
+            if (privateKey instanceof ECPrivateKey ecKey) {
+                return new ECDSASigner(ecKey);
+            }
+            if (privateKey instanceof EdECKey) {
+                return new Ed25519Signer(privateKey);
+            }
+            return new RSASSASigner(privateKey);
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Unusable signing key", e);
+        }
+    }
+
+    private static JWSVerifier createVerifier(PublicKey key) {
+        try {
+            if (key instanceof RSAPublicKey rsaKey) {
+                return new RSASSAVerifier(rsaKey);
+            }
+            if (key instanceof ECPublicKey ecKey) {
+                return new ECDSAVerifier(ecKey);
+            }
+            if (key instanceof EdECKey) {
+                return new Ed25519Verifier(key);
+            }
+            throw new IllegalArgumentException("Unsupported key " + key.getAlgorithm());
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Unusable verification key", e);
+        }
+    }
+
+    private static JWK createJwk(PublicKey key) {
+        if (key instanceof RSAPublicKey rsaKey) {
+            return new RSAKey.Builder(rsaKey).build();
+        }
+        if (key instanceof ECPublicKey ecKey) {
+            return new ECKey.Builder(Curve.forECParameterSpec(ecKey.getParams()), ecKey).build();
+        }
+        // The X.509 encoding of an Ed25519 key ends with the 32 raw key bytes
+        var encoded = key.getEncoded();
+        var x = Arrays.copyOfRange(encoded, encoded.length - 32, encoded.length);
+        return new OctetKeyPair.Builder(Curve.Ed25519, Base64URL.encode(x)).build();
+    }
+
+    private static JWSAlgorithm algorithmOf(PublicKey key) {
+        if (key instanceof RSAPublicKey) {
+            return JWSAlgorithm.RS256;
+        }
+        if (key instanceof ECPublicKey ecKey) {
+            return switch (ecKey.getParams().getCurve().getField().getFieldSize()) {
+                case 256 -> JWSAlgorithm.ES256;
+                case 384 -> JWSAlgorithm.ES384;
+                case 521 -> JWSAlgorithm.ES512;
+                default -> throw new IllegalArgumentException("Unsupported EC curve");
+            };
+        }
+        if (key instanceof EdECKey edKey && "Ed25519".equals(edKey.getParams().getName())) {
+            return JWSAlgorithm.EdDSA;
+        }
+        throw new IllegalArgumentException("Unsupported key " + key.getAlgorithm());
+    }
+
+    private static final class Ed25519Signer implements JWSSigner {
+
+        private final PrivateKey key;
+        private final JCAContext jcaContext = new JCAContext();
+
+        Ed25519Signer(PrivateKey key) {
+            this.key = key;
+        }
+
+        @Override
+        public Base64URL sign(JWSHeader header, byte[] signingInput) throws JOSEException {
+            try {
+                var signature = Signature.getInstance("Ed25519");
+                signature.initSign(key);
+                signature.update(signingInput);
+                return Base64URL.encode(signature.sign());
+            } catch (GeneralSecurityException e) {
+                throw new JOSEException("Ed25519 signing failed", e);
+            }
+        }
+
+        @Override
+        public Set<JWSAlgorithm> supportedJWSAlgorithms() {
+            return Set.of(JWSAlgorithm.EdDSA);
+        }
+
+        @Override
+        public JCAContext getJCAContext() {
+            return jcaContext;
+        }
+    }
+
+    private static final class Ed25519Verifier implements JWSVerifier {
+
+        private final PublicKey key;
+        private final JCAContext jcaContext = new JCAContext();
+
+        Ed25519Verifier(PublicKey key) {
+            this.key = key;
+        }
+
+        @Override
+        public boolean verify(JWSHeader header, byte[] signingInput, Base64URL signedContent) throws JOSEException {
+            if (!JWSAlgorithm.EdDSA.equals(header.getAlgorithm())) {
+                return false;
+            }
+            try {
+                var signature = Signature.getInstance("Ed25519");
+                signature.initVerify(key);
+                signature.update(signingInput);
+                return signature.verify(signedContent.decode());
+            } catch (GeneralSecurityException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public Set<JWSAlgorithm> supportedJWSAlgorithms() {
+            return Set.of(JWSAlgorithm.EdDSA);
+        }
+
+        @Override
+        public JCAContext getJCAContext() {
+            return jcaContext;
+        }
+    }
+}
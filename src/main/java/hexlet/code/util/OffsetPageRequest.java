@@ -0,0 +1,89 @@
+package hexlet.code.util;
+
+import hexlet.code.dto.page.PageParamsDTO;
+import hexlet.code.exception.BadRequestException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.Map;
+
+// Pageable addressed by row offset, react-admin asks for arbitrary ranges that do not have to align to pages
+public class OffsetPageRequest implements Pageable {
+
+    private final long offset;
+    private final int limit;
+    private final Sort sort;
+
+    public OffsetPageRequest(long offset, int limit, Sort sort) {
+        this.offset = offset;
+        this.limit = limit;
+        this.sort = sort;
+    }
+
+    // Maps the client sort field to an entity path, the id is always added as a tie breaker for stable pages
+    public static Pageable of(PageParamsDTO params, Map<String, String> sortableFields) {
+        var sort = Sort.unsorted();
+        if (params.getSort() != null) {
+            var property = sortableFields.get(params.getSort());
+            if (property == null) {
+                throw new BadRequestException("Sorting by " + params.getSort() + " is not supported");
+            }
+            var direction = "DESC".equalsIgnoreCase(params.getOrder()) ? Sort.Direction.DESC : Sort.Direction.ASC;
+            sort = Sort.by(direction, property);
+        }
+        sort = sort.and(Sort.by("id"));
+
+        if (!params.isPaged()) {
+            return Pageable.unpaged(sort);
+        }
+        if (params.getStart() < 0 || params.getEnd() <= params.getStart()) {
+            throw new BadRequestException("Invalid range " + params.getStart() + "-" + params.getEnd());
+        }
+        return new OffsetPageRequest(params.getStart(), params.getEnd() - params.getStart(), sort);
+    }
+
+    @Override
+    public int getPageNumber() {
+        return (int) (offset / limit);
+    }
+
+    @Override
+    public int getPageSize() {
+        return limit;
+    }
+
+    @Override
+    public long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public Sort getSort() {
+        return sort;
+    }
+
+    @Override
+    public Pageable next() {
+        return new OffsetPageRequest(offset + limit, limit, sort);
+    }
+
+    @Override
+    public Pageable previousOrFirst() {
+        return hasPrevious() ? new OffsetPageRequest(Math.max(0, offset - limit), limit, sort) : first();
+    }
+
+    @Override
+    public Pageable first() {
+        return new OffsetPageRequest(0, limit, sort);
+    }
+
+    @Override
+    public Pageable withPage(int pageNumber) {
+        return new OffsetPageRequest((long) pageNumber * limit, limit, sort);
+    }
+
+    @Override
+    public boolean hasPrevious() {
+        return offset > 0;
+    }
+}
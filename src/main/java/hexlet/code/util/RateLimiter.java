@@ -0,0 +1,96 @@
+package hexlet.code.util;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token bucket implemented as GCRA: each key keeps only the theoretical arrival time of the next request,
+// so acquiring a token is a single CAS and a key whose bucket is full again carries no state worth keeping.
+public class RateLimiter {
+
+    private static final long FRESH = Long.MIN_VALUE;
+    // Set on a cell before it is unmapped, so that a request still holding it takes the new cell of the key
+    private static final long EVICTED = Long.MAX_VALUE;
+    private static final long RETRY = -1;
+
+    private final long emissionInterval;
+    private final long burstTolerance;
+    private final int maxKeys;
+    private final long sweepInterval;
+    private final ConcurrentHashMap<String, AtomicLong> cells = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweep = new AtomicLong(System.nanoTime());
+
+    public RateLimiter(long capacity, Duration period, int maxKeys) {
+        this.emissionInterval = Math.max(1, period.toNanos() / capacity);
+        this.burstTolerance = emissionInterval * (capacity - 1);
+        this.maxKeys = maxKeys;
+        this.sweepInterval = emissionInterval + burstTolerance;
+    }
+
+    // Returns 0 when the request is allowed, otherwise nanoseconds until the next token is available
+    public long tryAcquire(String key, long now) {
+        return tryAcquire(key, now, 1);
+    }
+
+    // All permits or none, with one CAS. More permits than the capacity are never available
+    public long tryAcquire(String key, long now, int permits) {
+        while (true) {
+            var cell = cells.get(key);
+            if (cell == null || cell.get() == EVICTED) {
+                cell = newCell(key, now);
+                if (cell == null) {
+                    return 0;
+                }
+            }
+            var wait = acquire(cell, now, permits);
+            if (wait != RETRY) {
+                return wait;
+            }
+        }
+    }
+
+    private long acquire(AtomicLong cell, long now, int permits) {
+        while (true) {
+            var tat = cell.get();
+            if (tat == EVICTED) {
+                return RETRY;
+            }
+            var base = Math.max(tat, now);
+            var wait = base + (permits - 1) * emissionInterval - burstTolerance - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (cell.compareAndSet(tat, base + permits * emissionInterval)) {
+                return 0;
+            }
+        }
+    }
+
+    public int size() {
+        return cells.size();
+    }
+
+    private AtomicLong newCell(String key, long now) {
+        var sweepAt = nextSweep.get();
+        if ((cells.size() >= maxKeys || now - sweepAt >= 0) && nextSweep.compareAndSet(sweepAt, now + sweepInterval)) {
+            evictIdle(now);
+        }
+        if (cells.size() >= maxKeys) {
+            // Fail open rather than grow without bound when every tracked client is still active
+            return null;
+        }
+        return cells.compute(key, (k, cell) -> cell == null || cell.get() == EVICTED ? new AtomicLong(FRESH) : cell);
+    }
+
+    // Marking the cell fails the CAS of a request that fetched it meanwhile, instead of letting it spend permits on a
+    // cell that is no longer mapped
+    private void evictIdle(long now) {
+        for (var entry : cells.entrySet()) {
+            var cell = entry.getValue();
+            var tat = cell.get();
+            if (tat != EVICTED && tat - now <= 0 && cell.compareAndSet(tat, EVICTED)) {
+                cells.remove(entry.getKey(), cell);
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package hexlet.code.util;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Runs a loader once for concurrent callers with the same key, the others wait for it and get the same result.
+// With a zero ttl the result is forgotten as soon as it is ready, otherwise late callers reuse it until it expires
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> flights = new ConcurrentHashMap<>();
+    private final Duration ttl;
+    private final LongAdder shared = new LongAdder();
+
+    public SingleFlight(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        var flight = new CompletableFuture<V>();
+        var existing = flights.putIfAbsent(key, flight);
+        if (existing != null) {
+            shared.increment();
+            return join(existing);
+        }
+
+        try {
+            var value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            // Waiters see the same failure, the next caller tries again
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            if (ttl.isZero() || flight.isCompletedExceptionally()) {
+                flights.remove(key, flight);
+            } else {
+                CompletableFuture.delayedExecutor(ttl.toNanos(), TimeUnit.NANOSECONDS)
+                        .execute(() -> flights.remove(key, flight));
+            }
+        }
+    }
+
+    // Callers that got the result of another caller's loader
+    public long sharedCount() {
+        return shared.sum();
+    }
+
+    public int inFlight() {
+        return flights.size();
+    }
+
+    private static <V> V join(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package hexlet.code.util;
+
+import java.util.regex.Pattern;
+
+// Statements reduced to their shape: literals and parameter lists become single placeholders, so that statements
+// differing only in their values count as one
+public final class SqlShapes {
+
+    private static final Pattern STRING = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER = Pattern.compile("(?<![\\w.$])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+    private static final Pattern LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern SPACE = Pattern.compile("\\s+");
+
+    private SqlShapes() {
+    }
+
+    public static String shape(String sql) {
+        var shape = STRING.matcher(sql).replaceAll("?");
+        shape = NUMBER.matcher(shape).replaceAll("?");
+        shape = LIST.matcher(shape).replaceAll("(?)");
+        return SPACE.matcher(shape).replaceAll(" ").strip();
+    }
+
+    // String literals, of a statement or of a plan, may carry user data
+    public static String redact(String text) {
+        return STRING.matcher(text).replaceAll("'?'");
+    }
+
+    public static String id(String shape) {
+        return String.format("%08x", shape.hashCode());
+    }
+}
@@ -0,0 +1,137 @@
+package hexlet.code.util;
+
+import hexlet.code.dto.task.LabelMatch;
+import hexlet.code.dto.task.TaskParamsDTO;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+// Task ids per status slug, assignee and label as compressed bitmaps, so that a filter is a few bitmap
+// ANDs and ORs. Not thread safe, TaskFacetIndex guards it
+public class TaskFacets {
+
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final Map<String, RoaringBitmap> byStatus = new HashMap<>();
+    private final Map<Long, RoaringBitmap> byAssignee = new HashMap<>();
+    private final Map<Long, RoaringBitmap> byLabel = new HashMap<>();
+
+    public void add(int id, String status, Long assigneeId, Collection<Long> labelIds) {
+        all.add(id);
+        if (status != null) {
+            byStatus.computeIfAbsent(status.toLowerCase(), key -> new RoaringBitmap()).add(id);
+        }
+        if (assigneeId != null) {
+            byAssignee.computeIfAbsent(assigneeId, key -> new RoaringBitmap()).add(id);
+        }
+        if (labelIds != null) {
+            labelIds.forEach(labelId -> addLabel(id, labelId));
+        }
+    }
+
+    public void addLabel(int id, long labelId) {
+        byLabel.computeIfAbsent(labelId, key -> new RoaringBitmap()).add(id);
+    }
+
+    public void remove(int id, String status, Long assigneeId, Collection<Long> labelIds) {
+        all.remove(id);
+        removeFrom(byStatus, status == null ? null : status.toLowerCase(), id);
+        removeFrom(byAssignee, assigneeId, id);
+        if (labelIds != null) {
+            for (var labelId : labelIds) {
+                removeFrom(byLabel, labelId, id);
+            }
+        }
+    }
+
+    // Used when the previous facets of a task are unknown, touches every bitmap
+    public void removeEverywhere(int id) {
+        all.remove(id);
+        Stream.of(byStatus, byAssignee, byLabel).forEach(bitmaps -> {
+            bitmaps.values().forEach(bitmap -> bitmap.remove(id));
+            bitmaps.values().removeIf(RoaringBitmap::isEmpty);
+        });
+    }
+
+    public void renameStatus(String from, String to) {
+        var bitmap = byStatus.remove(from.toLowerCase());
+        if (bitmap != null) {
+            byStatus.merge(to.toLowerCase(), bitmap, (left, right) -> RoaringBitmap.or(left, right));
+        }
+    }
+
+    // Ignores titleCont, the caller has to check that the filter has no text condition
+    public RoaringBitmap match(TaskParamsDTO params) {
+        var parts = new ArrayList<RoaringBitmap>();
+        var statuses = params.collectStatuses();
+        if (!statuses.isEmpty()) {
+            parts.add(union(byStatus, statuses));
+        }
+        var assigneeIds = params.collectAssigneeIds();
+        if (!assigneeIds.isEmpty()) {
+            parts.add(union(byAssignee, assigneeIds));
+        }
+        var labelIds = params.collectLabelIds();
+        if (!labelIds.isEmpty() && params.getLabelMatch() == LabelMatch.ALL) {
+            labelIds.forEach(labelId -> parts.add(byLabel.getOrDefault(labelId, new RoaringBitmap())));
+        } else if (!labelIds.isEmpty()) {
+            parts.add(union(byLabel, labelIds));
+        }
+
+        if (parts.isEmpty()) {
+            return all.clone();
+        }
+        // Smallest first, the intersection never grows
+        parts.sort(Comparator.comparingLong(RoaringBitmap::getLongCardinality));
+        var result = parts.get(0).clone();
+        for (var i = 1; i < parts.size() && !result.isEmpty(); i++) {
+            result.and(parts.get(i));
+        }
+        return result;
+    }
+
+    // Converts dense stretches to run containers, worth it after a bulk load
+    public void optimize() {
+        all.runOptimize();
+        Stream.of(byStatus, byAssignee, byLabel)
+                .forEach(bitmaps -> bitmaps.values().forEach(RoaringBitmap::runOptimize));
+    }
+
+    public long taskCount() {
+        return all.getLongCardinality();
+    }
+
+    public int bitmapCount() {
+        return 1 + byStatus.size() + byAssignee.size() + byLabel.size();
+    }
+
+    public long sizeInBytes() {
+        return all.getLongSizeInBytes() + Stream.of(byStatus, byAssignee, byLabel)
+                .flatMap(bitmaps -> bitmaps.values().stream())
+                .mapToLong(RoaringBitmap::getLongSizeInBytes)
+                .sum();
+    }
+
+    private static <K> RoaringBitmap union(Map<K, RoaringBitmap> bitmaps, Collection<K> keys) {
+        return FastAggregation.or(keys.stream().map(bitmaps::get).filter(Objects::nonNull).iterator());
+    }
+
+    private static <K> void removeFrom(Map<K, RoaringBitmap> bitmaps, K key, int id) {
+        if (key == null) {
+            return;
+        }
+        var bitmap = bitmaps.get(key);
+        if (bitmap != null) {
+            bitmap.remove(id);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package hexlet.code.util;
+
+import hexlet.code.component.TraceSamplingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.sentry.Hint;
+import io.sentry.SamplingContext;
+import io.sentry.SentryOptions;
+import io.sentry.SpanStatus;
+import io.sentry.protocol.SentryTransaction;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Sampling policy for Sentry transactions. With errors or slow requests to keep, every transaction is recorded
+// and the decision is made when it finishes: errors and slow ones are kept, the rest at the endpoint rate.
+// Otherwise the rate is applied when the request starts and unsampled requests record nothing. Either way a
+// budget of spans per second caps what is sent
+public class TraceSampler implements SentryOptions.TracesSamplerCallback,
+        SentryOptions.BeforeSendTransactionCallback {
+
+    private static final Set<SpanStatus> ERRORS = EnumSet.of(SpanStatus.INTERNAL_ERROR, SpanStatus.UNKNOWN,
+            SpanStatus.UNKNOWN_ERROR, SpanStatus.UNAVAILABLE, SpanStatus.DEADLINE_EXCEEDED, SpanStatus.DATA_LOSS,
+            SpanStatus.UNIMPLEMENTED);
+    private static final String SPANS = "spans";
+
+    private final double baseRate;
+    private final boolean keepErrors;
+    private final Duration slowThreshold;
+    private final List<Rule> rules;
+    private final RateLimiter spanBudget;
+    private final long maxSpans;
+    private final Map<String, Counter> decisions;
+
+    public TraceSampler(TraceSamplingProperties properties, MeterRegistry meterRegistry) {
+        this.baseRate = properties.getBaseRate();
+        this.keepErrors = properties.isKeepErrors();
+        this.slowThreshold = properties.getSlowThreshold();
+        this.rules = properties.getEndpoints().stream()
+                .map(endpoint -> new Rule(PathPatternParser.defaultInstance.parse(endpoint.getPath()),
+                        endpoint.getMethod(), endpoint.getRate()))
+                .toList();
+        this.spanBudget = properties.getMaxSpansPerSecond() > 0
+                ? new RateLimiter(properties.getMaxSpansPerSecond(), Duration.ofSeconds(1), 1)
+                : null;
+        this.maxSpans = properties.getMaxSpansPerSecond();
+        this.decisions = Stream.of("error", "slow", "sampled", "dropped", "capped")
+                .collect(Collectors.toMap(Function.identity(), decision -> Counter.builder("tracing.transactions")
+                        .description("Finished transactions by sampling decision")
+                        .tag("decision", decision)
+                        .register(meterRegistry)));
+    }
+
+    @Override
+    public Double sample(SamplingContext context) {
+        var rule = ruleOf(context.getTransactionContext().getName());
+        // An endpoint turned off is not traced at all, not even its errors
+        if (rule != null && rule.rate() <= 0) {
+            return 0.0;
+        }
+        if (isDecidedAtEnd()) {
+            return 1.0;
+        }
+        return rule == null ? baseRate : rule.rate();
+    }
+
+    @Override
+    public SentryTransaction execute(SentryTransaction transaction, Hint hint) {
+        String decision;
+        if (keepErrors && ERRORS.contains(transaction.getStatus())) {
+            decision = "error";
+        } else if (isSlow(transaction)) {
+            decision = "slow";
+        } else if (!isDecidedAtEnd() || isSampled(transaction)) {
+            decision = "sampled";
+        } else {
+            decisions.get("dropped").increment();
+            return null;
+        }
+        if (!acquireSpans(1 + transaction.getSpans().size())) {
+            decisions.get("capped").increment();
+            return null;
+        }
+        decisions.get(decision).increment();
+        return transaction;
+    }
+
+    private boolean isDecidedAtEnd() {
+        return keepErrors || slowThreshold != null;
+    }
+
+    private boolean isSampled(SentryTransaction transaction) {
+        var rule = ruleOf(transaction.getTransaction());
+        return ThreadLocalRandom.current().nextDouble() < (rule == null ? baseRate : rule.rate());
+    }
+
+    private boolean isSlow(SentryTransaction transaction) {
+        if (slowThreshold == null || transaction.getTimestamp() == null) {
+            return false;
+        }
+        var seconds = transaction.getTimestamp() - transaction.getStartTimestamp();
+        return seconds * 1_000 >= slowThreshold.toMillis();
+    }
+
+    // The root transaction counts as a span too. A transaction takes its spans at once or not at all, one that is
+    // larger than the whole budget is dropped without taking any
+    private boolean acquireSpans(int count) {
+        if (spanBudget == null) {
+            return true;
+        }
+        return count <= maxSpans && spanBudget.tryAcquire(SPANS, System.nanoTime(), count) == 0;
+    }
+
+    // Transactions are named "GET /api/tasks/42" when they start and "GET /api/tasks/{id}" when they finish,
+    // path patterns like /api/tasks/** match both
+    private Rule ruleOf(String name) {
+        if (rules.isEmpty() || name == null) {
+            return null;
+        }
+        var separator = name.indexOf(' ');
+        var method = separator < 0 ? null : name.substring(0, separator);
+        var path = PathContainer.parsePath(separator < 0 ? name : name.substring(separator + 1));
+        for (var rule : rules) {
+            if (rule.method() != null && !rule.method().equalsIgnoreCase(method)) {
+                continue;
+            }
+            if (rule.pattern().matches(path)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private record Rule(PathPattern pattern, String method, double rate) {
+    }
+}
@@ -0,0 +1,74 @@
+package hexlet.code.component;
+
+import hexlet.code.event.TaskEventType;
+import hexlet.code.model.OutboxEvent;
+import hexlet.code.repository.OutboxEventRepository;
+import hexlet.code.util.InMemoryOutboxEventSink;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+public class OutboxRelayTest {
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private InMemoryOutboxEventSink outboxEventSink;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // The other transaction stands for the relay of another node that has claimed the oldest event
+    @Test
+    public void testEventsClaimedElsewhereAreNotDeliveredTwice() throws Exception {
+        outboxRelay.drain();
+        var aggregateId = System.nanoTime();
+        var types = List.of(TaskEventType.CREATED, TaskEventType.UPDATED, TaskEventType.DELETED);
+        for (var type : types) {
+            var event = new OutboxEvent();
+            event.setAggregateType("Task");
+            event.setAggregateId(aggregateId);
+            event.setType(type);
+            event.setPayload("{}");
+            outboxEventRepository.save(event);
+        }
+
+        var claimed = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var other = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            outboxEventRepository.claimBatch(1);
+            claimed.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertThat(claimed.await(10, TimeUnit.SECONDS)).isTrue();
+        try {
+            assertThat(outboxRelay.drain()).isZero();
+            assertThat(outboxEventSink.getEvents(aggregateId)).isEmpty();
+        } finally {
+            release.countDown();
+            other.get(10, TimeUnit.SECONDS);
+        }
+
+        outboxRelay.drain();
+        assertThat(outboxEventSink.getEvents(aggregateId))
+                .extracting(OutboxEvent::getType)
+                .containsExactlyElementsOf(types);
+    }
+}
@@ -0,0 +1,55 @@
+package hexlet.code.component;
+
+import hexlet.code.dto.task.TaskParamsDTO;
+import hexlet.code.repository.TaskRepository;
+import hexlet.code.specification.task.TaskSpecification;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Every statement counts as slow here, the shapes are counted on the log thread
+@SpringBootTest(properties = "slow-query.threshold=0ms")
+public class SlowQueryLogTest {
+
+    @Autowired
+    private SlowQueryLog slowQueryLog;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskSpecification taskSpecification;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testStatementsAreCountedByShape() throws InterruptedException {
+        for (var title : List.of("first", "second", "third")) {
+            var params = new TaskParamsDTO();
+            params.setTitleCont(title);
+            params.setLabelIds(title.equals("third") ? List.of(1L, 2L, 3L) : List.of(1L));
+            taskRepository.findAll(taskSpecification.build(params));
+        }
+        jdbcTemplate.queryForObject("SELECT count(*) FROM tasks WHERE name = 'private title' AND id > 10",
+                Long.class);
+
+        var shape = "SELECT count(*) FROM tasks WHERE name = ? AND id > ?";
+        for (var i = 0; i < 100 && !slowQueryLog.counts().containsKey(shape); i++) {
+            Thread.sleep(50);
+        }
+        var counts = slowQueryLog.counts();
+        assertThat(counts).containsEntry(shape, 1L);
+        assertThat(counts.entrySet())
+                .filteredOn(entry -> entry.getKey().contains(" from tasks ") && entry.getKey().contains(" like "))
+                .extracting(Map.Entry::getValue)
+                .containsExactly(3L);
+        assertThat(counts.keySet()).noneMatch(text -> text.contains("private"));
+    }
+}
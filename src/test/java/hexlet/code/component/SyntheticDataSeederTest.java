@@ -0,0 +1,58 @@
+package hexlet.code.component;
+
+import hexlet.code.repository.LabelRepository;
+import hexlet.code.repository.TaskRepository;
+import hexlet.code.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Uses its own in-memory database so that generated tasks do not leak into the controller tests. A batch of tasks
+// takes more parameters than one statement can bind, and is split
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:seed",
+    "seed.users=30",
+    "seed.labels=8",
+    "seed.tasks=12500",
+    "seed.batch-size=12000"
+})
+@ActiveProfiles({"development", "seed"})
+public class SyntheticDataSeederTest {
+
+    @Autowired
+    private SyntheticDataSeeder seeder;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LabelRepository labelRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testSeedsRequestedVolumeOnce() {
+        assertThat(userRepository.count()).isEqualTo(30);
+        assertThat(labelRepository.count()).isEqualTo(8);
+        assertThat(taskRepository.count()).isEqualTo(12500);
+        var taskLabels = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tasks_labels", Long.class);
+        assertThat(taskLabels).isPositive();
+
+        seeder.run(new DefaultApplicationArguments());
+
+        assertThat(userRepository.count()).isEqualTo(30);
+        assertThat(labelRepository.count()).isEqualTo(8);
+        assertThat(taskRepository.count()).isEqualTo(12500);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tasks_labels", Long.class))
+                .isEqualTo(taskLabels);
+    }
+}
@@ -0,0 +1,16 @@
+package hexlet.code.config;
+
+import hexlet.code.util.InMemoryOutboxEventSink;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+@Configuration
+public class OutboxTestConfig {
+
+    @Bean
+    @Primary
+    public InMemoryOutboxEventSink inMemoryOutboxEventSink() {
+        return new InMemoryOutboxEventSink();
+    }
+}
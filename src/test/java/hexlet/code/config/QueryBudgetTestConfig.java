@@ -0,0 +1,63 @@
+package hexlet.code.config;
+
+import hexlet.code.util.QueryCounter;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.List;
+
+// Every request a controller test performs through MockMvc is held to a select budget, the first matching rule
+// applies. The list endpoints are also checked with growing data, see the testIndexQueryBudget tests
+@Configuration
+public class QueryBudgetTestConfig {
+
+    private static final int DEFAULT_SELECTS = 6;
+    private static final List<Budget> BUDGETS = List.of(
+            Budget.of("GET", "/api/tasks", 3),
+            Budget.of("GET", "/api/tasks/board", 3),
+            Budget.of("GET", "/api/tasks/search", 1),
+            // The labels, and the statuses when a new slug is not cached yet. A write failing on a missing reference
+            // reads which one
+            Budget.of("POST", "/api/tasks", 3),
+            Budget.of("PUT", "/api/tasks/{id}", 3),
+            Budget.of("GET", "/api/{resource}", 2),
+            Budget.of("GET", "/api/{resource}/{id}", 1));
+
+    @Bean
+    public QueryCounter queryCounter() {
+        return new QueryCounter();
+    }
+
+    @Bean
+    public MockMvcBuilderCustomizer queryBudgetCustomizer(QueryCounter queryCounter) {
+        return builder -> builder.addFilters((request, response, chain) -> {
+            var http = (HttpServletRequest) request;
+            var path = PathContainer.parsePath(http.getRequestURI());
+            var selects = BUDGETS.stream()
+                    .filter(budget -> budget.method().equals(http.getMethod()) && budget.pattern().matches(path))
+                    .findFirst()
+                    .map(Budget::selects)
+                    .orElse(DEFAULT_SELECTS);
+            var counts = queryCounter.start();
+            try (counts) {
+                chain.doFilter(request, response);
+            }
+            if (counts.selects() > selects) {
+                throw new AssertionError(http.getMethod() + " " + http.getRequestURI() + " ran " + counts.selects()
+                        + " selects, the budget is " + selects + ": " + counts);
+            }
+        });
+    }
+
+    private record Budget(String method, PathPattern pattern, int selects) {
+
+        static Budget of(String method, String pattern, int selects) {
+            return new Budget(method, PathPatternParser.defaultInstance.parse(pattern), selects);
+        }
+    }
+}
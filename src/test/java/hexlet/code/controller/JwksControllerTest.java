@@ -0,0 +1,147 @@
+package hexlet.code.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jwt.SignedJWT;
+import hexlet.code.component.JwtKeys;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Rotates the signing key through a key directory the way an operator would, step by step
+@SpringBootTest
+@AutoConfigureMockMvc
+public class JwksControllerTest {
+
+    private static final Path KEY_DIR = createKeyDir();
+    private static final KeyPair OLD_KEY = generate("EC");
+    private static final KeyPair NEW_KEY = generate("Ed25519");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper om;
+
+    @Autowired
+    private JwtKeys jwtKeys;
+
+    @DynamicPropertySource
+    static void keySet(DynamicPropertyRegistry registry) throws IOException {
+        write("old.key.pem", "PRIVATE KEY", OLD_KEY.getPrivate().getEncoded());
+        write("old.pub.pem", "PUBLIC KEY", OLD_KEY.getPublic().getEncoded());
+        registry.add("jwt.key-set", KEY_DIR::toString);
+    }
+
+    @Test
+    public void testKeyRotation() throws Exception {
+        var oldToken = login();
+        var oldKid = SignedJWT.parse(oldToken).getHeader().getKeyID();
+        assertThat(publishedKids()).containsExactly(oldKid);
+
+        // The new public key is published everywhere before any node signs with it
+        write("new.pub.pem", "PUBLIC KEY", NEW_KEY.getPublic().getEncoded());
+        jwtKeys.refresh();
+        assertThat(publishedKids()).hasSize(2).contains(oldKid);
+
+        Files.delete(KEY_DIR.resolve("old.key.pem"));
+        write("new.key.pem", "PRIVATE KEY", NEW_KEY.getPrivate().getEncoded());
+        jwtKeys.refresh();
+        var newToken = login();
+        var newKid = SignedJWT.parse(newToken).getHeader().getKeyID();
+        assertThat(newKid).isNotEqualTo(oldKid);
+        assertThat(SignedJWT.parse(newToken).getHeader().getAlgorithm().getName()).isEqualTo("EdDSA");
+        assertAccepted(oldToken, true);
+        assertAccepted(newToken, true);
+
+        // Once the old tokens have expired, the old public key goes
+        Files.delete(KEY_DIR.resolve("old.pub.pem"));
+        jwtKeys.refresh();
+        assertThat(publishedKids()).containsExactly(newKid);
+        assertAccepted(oldToken, false);
+        assertAccepted(newToken, true);
+    }
+
+    @Test
+    public void testBrokenKeySetIsIgnored() throws Exception {
+        var before = publishedKids();
+        write("broken.pem", "PRIVATE KEY", new byte[] {1, 2, 3});
+        try {
+            jwtKeys.refresh();
+            assertThat(publishedKids()).isEqualTo(before);
+        } finally {
+            Files.delete(KEY_DIR.resolve("broken.pem"));
+            jwtKeys.refresh();
+        }
+    }
+
+    private String login() throws Exception {
+        var body = "{\"username\": \"hexlet@example.com\", \"password\": \"qwerty\"}";
+        return mockMvc.perform(post("/api/login").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private List<String> publishedKids() throws Exception {
+        var body = mockMvc.perform(get("/.well-known/jwks.json"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=300, public"))
+                .andReturn().getResponse().getContentAsString();
+        var kids = new ArrayList<String>();
+        om.readTree(body).get("keys").forEach(key -> {
+            assertThat(key.has("d")).isFalse();
+            kids.add(key.get("kid").asText());
+        });
+        return kids;
+    }
+
+    private void assertAccepted(String token, boolean accepted) throws Exception {
+        var request = get("/api/labels").header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        mockMvc.perform(request).andExpect(accepted ? status().isOk() : status().isUnauthorized());
+    }
+
+    private static void write(String name, String type, byte[] der) throws IOException {
+        var pem = "-----BEGIN " + type + "-----\n" + Base64.getMimeEncoder().encodeToString(der)
+                + "\n-----END " + type + "-----\n";
+        Files.writeString(KEY_DIR.resolve(name), pem);
+    }
+
+    private static Path createKeyDir() {
+        try {
+            var dir = Files.createTempDirectory("jwt-keys");
+            dir.toFile().deleteOnExit();
+            return dir;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static KeyPair generate(String algorithm) {
+        try {
+            return KeyPairGenerator.getInstance(algorithm).generateKeyPair();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
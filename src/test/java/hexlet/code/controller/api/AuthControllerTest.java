@@ -0,0 +1,144 @@
+package hexlet.code.controller.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jwt.SignedJWT;
+import hexlet.code.util.JwsEncoder;
+import hexlet.code.util.JwtKey;
+import hexlet.code.util.PemKeys;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Signs with a fresh Ed25519 key while the bundled RSA key is kept as a previous key, like in a migration.
+@SpringBootTest
+@AutoConfigureMockMvc
+public class AuthControllerTest {
+
+    private static final KeyPair ED25519 = generate("Ed25519");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper om;
+
+    @DynamicPropertySource
+    static void jwtKeys(DynamicPropertyRegistry registry) {
+        registry.add("jwt.private-key", () -> pem("PRIVATE KEY", ED25519.getPrivate().getEncoded()));
+        registry.add("jwt.public-key", () -> pem("PUBLIC KEY", ED25519.getPublic().getEncoded()));
+        registry.add("jwt.previous-public-keys", () -> "classpath:certs/public.pem");
+    }
+
+    @Test
+    public void testLoginSignsWithConfiguredAlgorithm() throws Exception {
+        var body = "{\"username\": \"hexlet@example.com\", \"password\": \"qwerty\"}";
+        var token = mockMvc.perform(post("/api/login").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(SignedJWT.parse(token).getHeader().getAlgorithm().getName()).isEqualTo("EdDSA");
+        mockMvc.perform(get("/api/labels").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testRefreshTokenRotation() throws Exception {
+        var body = "{\"username\": \"hexlet@example.com\", \"password\": \"qwerty\"}";
+        var first = mockMvc.perform(post("/api/login").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(AuthController.REFRESH_TOKEN_HEADER);
+        assertThat(first).isNotBlank();
+
+        var renewed = om.readTree(refresh(first).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        var second = renewed.get("refreshToken").asText();
+        assertThat(second).isNotEqualTo(first);
+        mockMvc.perform(get("/api/labels")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + renewed.get("accessToken").asText()))
+                .andExpect(status().isOk());
+
+        // A used token coming back means it leaked, the whole chain stops working
+        refresh(first).andExpect(status().isUnauthorized());
+        refresh(second).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void testForgedRefreshTokenIsRejected() throws Exception {
+        refresh("not-a-token").andExpect(status().isUnauthorized());
+        refresh(Base64.getUrlEncoder().withoutPadding().encodeToString(new byte[48]))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void testTokenOfPreviousKeyIsAccepted() throws Exception {
+        var rsaKey = new JwtKey(PemKeys.readPublicKey(read("certs/public.pem")),
+                PemKeys.readPrivateKey(read("certs/private.pem")), null);
+        mockMvc.perform(get("/api/labels").header(HttpHeaders.AUTHORIZATION, "Bearer " + sign(rsaKey)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testTokenOfUnknownKeyIsRejected() throws Exception {
+        var pair = generate("EC");
+        var unknownKey = new JwtKey(pair.getPublic(), pair.getPrivate(), null);
+        mockMvc.perform(get("/api/labels").header(HttpHeaders.AUTHORIZATION, "Bearer " + sign(unknownKey)))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private ResultActions refresh(String refreshToken) throws Exception {
+        var body = om.writeValueAsString(Map.of("refreshToken", refreshToken));
+        return mockMvc.perform(post("/api/login/refresh").contentType(MediaType.APPLICATION_JSON).content(body));
+    }
+
+    private static String sign(JwtKey key) {
+        var now = Instant.now();
+        var claims = JwtClaimsSet.builder()
+                .issuer("self")
+                .issuedAt(now)
+                .expiresAt(now.plus(1, ChronoUnit.HOURS))
+                .subject("hexlet@example.com")
+                .build();
+        return new JwsEncoder(() -> key).encode(JwtEncoderParameters.from(claims)).getTokenValue();
+    }
+
+    private static String read(String path) throws Exception {
+        return new ClassPathResource(path).getContentAsString(StandardCharsets.US_ASCII);
+    }
+
+    private static String pem(String type, byte[] der) {
+        return "-----BEGIN " + type + "-----\n" + Base64.getMimeEncoder().encodeToString(der)
+                + "\n-----END " + type + "-----\n";
+    }
+
+    private static KeyPair generate(String algorithm) {
+        try {
+            return KeyPairGenerator.getInstance(algorithm).generateKeyPair();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
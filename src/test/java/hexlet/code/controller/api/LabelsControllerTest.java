@@ -9,9 +9,12 @@ import hexlet.code.exception.ResourceNotFoundException;
 import hexlet.code.model.Label;
 import hexlet.code.repository.LabelRepository;
 import hexlet.code.util.ModelUtils;
+import hexlet.code.util.QueryCounter;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -19,6 +22,8 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.ArrayList;
+
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -42,6 +47,9 @@ public class LabelsControllerTest {
     @Autowired
     private LabelRepository labelRepository;
 
+    @Autowired
+    private QueryCounter queryCounter;
+
     private SecurityMockMvcRequestPostProcessors.JwtRequestPostProcessor token;
     private Label testLabel;
 
@@ -69,6 +77,42 @@ public class LabelsControllerTest {
         assertThatJson(body).isArray();
     }
 
+    @ParameterizedTest
+    @ValueSource(ints = {1, 30})
+    public void testIndexQueryBudget(int size) throws Exception {
+        var ids = new ArrayList<Long>();
+        for (var i = 0; i < size; i++) {
+            ids.add(labelRepository.save(modelUtils.newLabel()).getId());
+        }
+        try {
+            var body = queryCounter.atMostSelects(1, () -> mockMvc.perform(get("/api/labels").with(token))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            assertThat(om.readTree(body).size()).isGreaterThan(size);
+        } finally {
+            labelRepository.deleteAllById(ids);
+        }
+    }
+
+    @Test
+    public void testIndexPaged() throws Exception {
+        var newest = labelRepository.save(modelUtils.newLabel());
+        try {
+            var request = get("/api/labels?_start=0&_end=2&_sort=id&_order=DESC").with(token);
+            var result = mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+            var body = om.readTree(result.getResponse().getContentAsString());
+            assertThat(body).hasSize(2);
+            assertThat(body.get(0).get("id").asLong()).isEqualTo(newest.getId());
+            assertThat(body.get(1).get("id").asLong()).isEqualTo(testLabel.getId());
+            assertThat(result.getResponse().getHeader("X-Total-Count"))
+                    .isEqualTo(String.valueOf(labelRepository.count()));
+            mockMvc.perform(get("/api/labels?_start=0&_end=2&_sort=tasks").with(token))
+                    .andExpect(status().isBadRequest());
+        } finally {
+            labelRepository.deleteById(newest.getId());
+        }
+    }
+
     @Test
     public void testCreate() throws Exception {
         var labelData = new LabelInputDTO();
@@ -141,6 +185,34 @@ public class LabelsControllerTest {
         assertThat(updatedLabel.getName()).isEqualTo(labelData.getName());
     }
 
+    @Test
+    public void testUpdateWithStaleVersion() throws Exception {
+        var id = testLabel.getId();
+        var etag = mockMvc.perform(get("/api/labels/{id}", id).with(token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        var labelData = new LabelInputDTO();
+        labelData.setName("FirstEditor");
+        var request = put("/api/labels/{id}", id).with(token)
+                .header("If-Match", etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(om.writeValueAsString(labelData));
+        var newEtag = mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse().getHeader("ETag");
+        assertThat(newEtag).isNotEqualTo(etag);
+
+        labelData.setName("SecondEditor");
+        request = put("/api/labels/{id}", id).with(token)
+                .header("If-Match", etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(om.writeValueAsString(labelData));
+        mockMvc.perform(request).andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete("/api/labels/{id}", id).with(token).header("If-Match", etag))
+                .andExpect(status().isPreconditionFailed());
+
+        assertThat(labelRepository.findById(id).orElseThrow().getName()).isEqualTo("FirstEditor");
+    }
+
     @Test
     public void updateWithInvalidData() throws Exception {
         var labelData = new LabelInputDTO();
@@ -7,12 +7,14 @@ import hexlet.code.exception.ResourceNotFoundException;
 import hexlet.code.model.TaskStatus;
 import hexlet.code.repository.TaskStatusRepository;
 import hexlet.code.util.ModelUtils;
+import hexlet.code.util.QueryCounter;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.openapitools.jackson.nullable.JsonNullable;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -21,6 +23,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
 
+import java.util.ArrayList;
 import java.util.stream.Stream;
 
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
@@ -48,6 +51,9 @@ public class TaskStatusesControllerTest {
     @Autowired
     private ModelUtils modelUtils;
 
+    @Autowired
+    private QueryCounter queryCounter;
+
     private SecurityMockMvcRequestPostProcessors.JwtRequestPostProcessor token;
     private TaskStatus testTaskStatus;
 
@@ -76,6 +82,37 @@ public class TaskStatusesControllerTest {
         assertThatJson(body).isArray();
     }
 
+    @ParameterizedTest
+    @ValueSource(ints = {1, 30})
+    public void testIndexQueryBudget(int size) throws Exception {
+        var ids = new ArrayList<Long>();
+        for (var i = 0; i < size; i++) {
+            var status = new TaskStatus();
+            status.setName("Budget " + size + "-" + i);
+            status.setSlug("budget_" + size + "_" + i);
+            ids.add(taskStatusRepository.save(status).getId());
+        }
+        try {
+            var body = queryCounter.atMostSelects(1, () -> mockMvc.perform(get("/api/task_statuses").with(token))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            assertThat(om.readTree(body).size()).isGreaterThan(size);
+        } finally {
+            taskStatusRepository.deleteAllById(ids);
+        }
+    }
+
+    @Test
+    public void testIndexPaged() throws Exception {
+        var request = get("/api/task_statuses?range=[0,0]&sort=[\"slug\",\"DESC\"]").with(token);
+        var result = mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+        var body = om.readTree(result.getResponse().getContentAsString());
+        assertThat(body).hasSize(1);
+        var slugs = taskStatusRepository.findAll().stream().map(TaskStatus::getSlug).sorted().toList();
+        assertThat(body.get(0).get("slug").asText()).isEqualTo(slugs.get(slugs.size() - 1));
+        assertThat(result.getResponse().getHeader("X-Total-Count")).isEqualTo(String.valueOf(slugs.size()));
+    }
+
     @Test
     public void testCreate() throws Exception {
         var taskData = new TaskStatusCreateDTO();
@@ -3,11 +3,18 @@ package hexlet.code.controller.api;
 import static net.javacrumbs.jsonunit.assertj.JsonAssertions.assertThatJson;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import hexlet.code.dto.task.TaskCreateDTO;
 import hexlet.code.dto.task.TaskUpdateDTO;
+import hexlet.code.component.OutboxRelay;
+import hexlet.code.component.TaskFacetIndex;
+import hexlet.code.component.TaskSearchIndex;
+import hexlet.code.component.TaskListProperties;
+import hexlet.code.event.TaskEventType;
 import hexlet.code.exception.ResourceNotFoundException;
 import hexlet.code.model.Label;
+import hexlet.code.model.OutboxEvent;
 import hexlet.code.model.Task;
 import hexlet.code.model.TaskStatus;
 import hexlet.code.model.User;
@@ -15,7 +22,9 @@ import hexlet.code.repository.LabelRepository;
 import hexlet.code.repository.TaskRepository;
 import hexlet.code.repository.TaskStatusRepository;
 import hexlet.code.repository.UserRepository;
+import hexlet.code.util.InMemoryOutboxEventSink;
 import hexlet.code.util.ModelUtils;
+import hexlet.code.util.QueryCounter;
 import net.datafaker.Faker;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -24,16 +33,26 @@ import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.openapitools.jackson.nullable.JsonNullable;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
@@ -41,6 +60,8 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -72,6 +93,24 @@ public class TasksControllerTest {
     @Autowired
     private ModelUtils modelUtils;
 
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private InMemoryOutboxEventSink outboxEventSink;
+
+    @Autowired
+    private TaskFacetIndex taskFacetIndex;
+
+    @Autowired
+    private TaskSearchIndex taskSearchIndex;
+
+    @Autowired
+    private TaskListProperties taskListProperties;
+
+    @Autowired
+    private QueryCounter queryCounter;
+
     private SecurityMockMvcRequestPostProcessors.JwtRequestPostProcessor token;
     private User testUser;
     private Task testTask;
@@ -100,6 +139,8 @@ public class TasksControllerTest {
         testTask.setAssignee(testUser);
         testTask.setLabels(testLabels);
         taskRepository.save(testTask);
+        // The rows above bypass TasksService, so the facet index does not know about them yet
+        taskFacetIndex.rebuild();
     }
 
     @AfterEach
@@ -144,6 +185,18 @@ public class TasksControllerTest {
         }
     }
 
+    // The list query, its count and the coalescing key all see the slug lower-cased
+    @Test
+    public void testIndexWithStatusInAnyCase() throws Exception {
+        for (var slug : List.of(testTaskStatus.getSlug(), testTaskStatus.getSlug().toUpperCase())) {
+            var path = "/api/tasks?_start=0&_end=10&assigneeId=" + testUser.getId() + "&status=" + slug;
+            var result = mockMvc.perform(get(path).with(token)).andExpect(status().isOk()).andReturn();
+            assertThat(result.getResponse().getHeader("X-Total-Count")).isEqualTo("1");
+            assertThat(om.readTree(result.getResponse().getContentAsString()).get(0).get("id").asLong())
+                    .isEqualTo(testTask.getId());
+        }
+    }
+
     private Stream<Arguments> supplyIndexWithParamCombinations() {
         return Stream.of(
                 Arguments.of(true, false, false, false),
@@ -154,6 +207,334 @@ public class TasksControllerTest {
         );
     }
 
+    @ParameterizedTest
+    @ValueSource(strings = {"exact", "cached", "estimated", "none"})
+    public void testIndexPaged(String countMode) throws Exception {
+        // A text filter keeps the request on the SQL path, the facet index always knows the exact total
+        var secondTask = modelUtils.newTask(testTaskStatus, testUser);
+        secondTask.setName(testTask.getName() + " copy");
+        taskRepository.save(secondTask);
+
+        var request = get("/api/tasks?_start=0&_end=1&_sort=id&_order=DESC&titleCont=" + testTask.getName()
+                + "&_count=" + countMode).with(token);
+        var result = mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+        var body = result.getResponse().getContentAsString();
+        taskRepository.deleteById(secondTask.getId());
+
+        assertThatJson(body).isArray().hasSize(1);
+        assertThat(om.readTree(body).get(0).get("id").asLong()).isEqualTo(secondTask.getId());
+        assertThat(result.getResponse().getHeader("X-Total-Count")).isEqualTo("2");
+    }
+
+    @Test
+    public void testIndexFromFacetIndex() throws Exception {
+        taskListProperties.setFacetIndexEnabled(true);
+        taskFacetIndex.rebuild();
+        try {
+            assertIndexFollowsChanges();
+        } finally {
+            taskListProperties.setFacetIndexEnabled(false);
+        }
+    }
+
+    private void assertIndexFollowsChanges() throws Exception {
+        var createData = new TaskCreateDTO();
+        createData.setTitle(faker.lorem().word());
+        createData.setStatus(testTaskStatus.getSlug());
+        createData.setTaskLabelIds(Set.of(testLabel.getId()));
+        var createRequest = post("/api/tasks").with(token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(om.writeValueAsString(createData));
+        var created = om.readTree(mockMvc.perform(createRequest).andReturn().getResponse().getContentAsString());
+
+        var path = "/api/tasks?_start=0&_end=1&_sort=id&_order=DESC&labelId=" + testLabel.getId();
+        var result = mockMvc.perform(get(path).with(token)).andExpect(status().isOk()).andReturn();
+        assertThat(result.getResponse().getHeader("X-Total-Count")).isEqualTo("2");
+        assertThat(om.readTree(result.getResponse().getContentAsString()).get(0).get("id").asLong())
+                .isEqualTo(created.get("id").asLong());
+
+        mockMvc.perform(delete("/api/tasks/" + created.get("id").asLong()).with(token));
+        result = mockMvc.perform(get(path).with(token)).andExpect(status().isOk()).andReturn();
+        assertThat(result.getResponse().getHeader("X-Total-Count")).isEqualTo("1");
+        assertThat(om.readTree(result.getResponse().getContentAsString()).get(0).get("id").asLong())
+                .isEqualTo(testTask.getId());
+    }
+
+    // The lists go through a message converter: typed in the API docs, and subject to content negotiation
+    @Test
+    public void testIndexIsDescribedAndNegotiated() throws Exception {
+        var docs = mockMvc.perform(get("/v3/api-docs").with(token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThatJson(docs).node("paths./api/tasks.get.responses.200.content").isObject().isNotEmpty();
+        assertThatJson(docs).node("paths./api/tasks/board.get.responses.200.content").isObject().isNotEmpty();
+
+        mockMvc.perform(get("/api/tasks").with(token).accept(MediaType.APPLICATION_XML))
+                .andExpect(status().isNotAcceptable());
+        mockMvc.perform(get("/api/tasks").with(token).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE));
+    }
+
+    @Test
+    public void testIndexWithUnknownSort() throws Exception {
+        var request = get("/api/tasks?_start=0&_end=10&_sort=password").with(token);
+        mockMvc.perform(request).andExpect(status().isBadRequest());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"any", "all"})
+    public void testIndexWithSeveralLabels(String labelMatch) throws Exception {
+        var otherLabel = labelRepository.save(modelUtils.newLabel());
+        var secondTask = modelUtils.newTask(testTaskStatus, testUser);
+        secondTask.setLabels(new HashSet<>(Set.of(testLabel, otherLabel)));
+        taskRepository.save(secondTask);
+
+        var path = "/api/tasks?labelIds=" + testLabel.getId() + "," + otherLabel.getId()
+                + "&labelMatch=" + labelMatch + "&statuses=" + testTaskStatus.getSlug() + ",missing"
+                + "&assigneeIds=" + testUser.getId();
+        var result = mockMvc.perform(get(path).with(token)).andExpect(status().isOk()).andReturn();
+        var body = result.getResponse().getContentAsString();
+        taskRepository.deleteById(secondTask.getId());
+        labelRepository.deleteById(otherLabel.getId());
+
+        var ids = new HashSet<Long>();
+        om.readTree(body).forEach(element -> ids.add(element.get("id").asLong()));
+        var expected = labelMatch.equals("all") ? Set.of(secondTask.getId())
+                : Set.of(testTask.getId(), secondTask.getId());
+        assertThat(ids).isEqualTo(expected);
+        assertThatJson(body).isArray().hasSize(expected.size());
+    }
+
+    // Statuses, assignees and labels come with the page: thirty tasks take no more statements than one, from the
+    // facet index, from a filtered query and unpaged
+    @ParameterizedTest
+    @ValueSource(ints = {1, 30})
+    public void testIndexQueryBudget(int size) throws Exception {
+        var otherLabel = labelRepository.save(modelUtils.newLabel());
+        var title = "budget" + faker.lorem().characters(12, false, false);
+        var assignees = new ArrayList<User>();
+        var tasks = new ArrayList<Task>();
+        for (var i = 0; i < size; i++) {
+            if (assignees.size() < 5) {
+                assignees.add(userRepository.save(modelUtils.newUser()));
+            }
+            var task = modelUtils.newTask(testTaskStatus, assignees.get(i % assignees.size()));
+            task.setName(title + i);
+            task.setLabels(new HashSet<>(Set.of(testLabel, otherLabel)));
+            tasks.add(taskRepository.save(task));
+        }
+        taskFacetIndex.rebuild();
+
+        try {
+            var paths = List.of("/api/tasks?_start=0&_end=50&labelId=" + otherLabel.getId(),
+                    "/api/tasks?_start=0&_end=50&_sort=title&titleCont=" + title,
+                    "/api/tasks?titleCont=" + title);
+            for (var path : paths) {
+                var body = queryCounter.atMostSelects(2, () -> mockMvc.perform(get(path).with(token))
+                        .andExpect(status().isOk())
+                        .andReturn().getResponse().getContentAsString());
+                assertThatJson(body).isArray().hasSize(size);
+            }
+        } finally {
+            taskRepository.deleteAllById(tasks.stream().map(Task::getId).toList());
+            userRepository.deleteAllById(assignees.stream().map(User::getId).toList());
+            labelRepository.deleteById(otherLabel.getId());
+        }
+    }
+
+    @Test
+    public void testBoard() throws Exception {
+        var secondTask = taskRepository.save(modelUtils.newTask(testTaskStatus, testUser));
+
+        var request = get("/api/tasks/board?perColumn=1&assigneeId=" + testUser.getId()).with(token);
+        var result = mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+        var body = result.getResponse().getContentAsString();
+        taskRepository.deleteById(secondTask.getId());
+
+        assertThatJson(body).isArray().hasSize((int) taskStatusRepository.count());
+        var column = findColumn(om.readTree(body), testTaskStatus.getSlug());
+        assertThat(column.get("total").asLong()).isEqualTo(2);
+        assertThat(column.get("tasks")).hasSize(1);
+        assertThat(column.get("tasks").get(0).get("assignee_id").asLong()).isEqualTo(testUser.getId());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {-1, 0, 101})
+    public void testBoardWithInvalidColumnSize(int perColumn) throws Exception {
+        mockMvc.perform(get("/api/tasks/board?perColumn=" + perColumn).with(token))
+                .andExpect(status().isBadRequest());
+    }
+
+    private JsonNode findColumn(JsonNode board, String slug) {
+        for (var column : board) {
+            if (column.get("status").get("slug").asText().equals(slug)) {
+                return column;
+            }
+        }
+        throw new AssertionError("No column for status " + slug);
+    }
+
+    @Test
+    public void testMove() throws Exception {
+        var column = taskStatusRepository.save(modelUtils.newTaskStatus());
+        var first = taskRepository.save(modelUtils.newTask(testTaskStatus, testUser));
+        var second = taskRepository.save(modelUtils.newTask(testTaskStatus, testUser));
+        var third = taskRepository.save(modelUtils.newTask(testTaskStatus, testUser));
+
+        var firstRank = move(first, Map.of("status", column.getSlug()));
+        var secondRank = move(second, Map.of("previousId", first.getId()));
+        var thirdRank = move(third, Map.of("previousId", first.getId(), "nextId", second.getId()));
+        var thirdRankAgain = move(third, Map.of("nextId", second.getId()));
+
+        taskRepository.deleteAllById(List.of(first.getId(), second.getId(), third.getId()));
+        taskStatusRepository.deleteById(column.getId());
+
+        assertThat(thirdRank).isGreaterThan(firstRank).isLessThan(secondRank);
+        assertThat(thirdRankAgain).isGreaterThan(firstRank).isLessThan(secondRank);
+    }
+
+    // An unranked neighbour leaves its side open instead of renumbering the column
+    @Test
+    public void testMoveNextToUnrankedTask() throws Exception {
+        var column = taskStatusRepository.save(modelUtils.newTaskStatus());
+        var ranked = taskRepository.save(modelUtils.newTask(testTaskStatus, testUser));
+        var unrankedTask = modelUtils.newTask(column, testUser);
+        unrankedTask.setRank(null);
+        var unranked = taskRepository.save(unrankedTask);
+        var moved = taskRepository.save(modelUtils.newTask(testTaskStatus, testUser));
+        try {
+            var rankedRank = move(ranked, Map.of("status", column.getSlug()));
+            var before = taskRepository.findById(ranked.getId()).orElseThrow();
+
+            var movedRank = move(moved, Map.of("previousId", unranked.getId()));
+
+            var after = taskRepository.findById(ranked.getId()).orElseThrow();
+            assertThat(after.getRank()).isEqualTo(rankedRank);
+            assertThat(after.getVersion()).isEqualTo(before.getVersion());
+            assertThat(movedRank).isGreaterThan(rankedRank);
+            assertThat(taskRepository.findById(moved.getId()).orElseThrow().getVersion())
+                    .isEqualTo(moved.getVersion() + 1);
+        } finally {
+            taskRepository.deleteAllById(List.of(ranked.getId(), unranked.getId(), moved.getId()));
+            taskStatusRepository.deleteById(column.getId());
+        }
+    }
+
+    private long move(Task task, Map<String, Object> data) throws Exception {
+        var request = post("/api/tasks/" + task.getId() + "/move").with(token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(om.writeValueAsString(data));
+        var body = mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        return om.readTree(body).get("rank").asLong();
+    }
+
+    @Test
+    public void testBulkChanges() throws Exception {
+        var column = taskStatusRepository.save(modelUtils.newTaskStatus());
+        var otherLabel = labelRepository.save(modelUtils.newLabel());
+        var filter = "?labelId=" + testLabel.getId();
+
+        assertThat(bulk(filter, Map.of("action", "SET_STATUS", "status", column.getSlug()))).isEqualTo(1);
+        // Already in that status, nothing left to change
+        assertThat(bulk(filter, Map.of("action", "SET_STATUS", "status", column.getSlug()))).isZero();
+        assertThat(bulk(filter, Map.of("action", "ADD_LABEL", "labelId", otherLabel.getId()))).isEqualTo(1);
+        assertThat(bulk(filter, Map.of("action", "REASSIGN"))).isEqualTo(1);
+
+        var task = taskRepository.findById(testTask.getId()).orElseThrow();
+        assertThat(task.getTaskStatus().getSlug()).isEqualTo(column.getSlug());
+        assertThat(task.getAssignee()).isNull();
+        assertThat(task.getLabels()).extracting(Label::getId).containsExactlyInAnyOrder(
+                testLabel.getId(), otherLabel.getId());
+        assertThat(task.getVersion()).isEqualTo(testTask.getVersion() + 3);
+
+        assertThat(bulk(filter, Map.of("action", "DELETE"))).isEqualTo(1);
+        assertThat(taskRepository.findById(testTask.getId())).isEmpty();
+
+        labelRepository.deleteById(otherLabel.getId());
+        taskStatusRepository.deleteById(column.getId());
+    }
+
+    // A blank text is no filter, it must not let a bulk change through to every task
+    @ParameterizedTest
+    @NullSource
+    @ValueSource(strings = {"", "  "})
+    public void testBulkWithoutFilter(String titleCont) throws Exception {
+        var count = taskRepository.count();
+        var request = post("/api/tasks/bulk").with(token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(om.writeValueAsString(Map.of("action", "DELETE")));
+        if (titleCont != null) {
+            request.param("titleCont", titleCont);
+        }
+        mockMvc.perform(request).andExpect(status().isBadRequest());
+        assertThat(taskRepository.findById(testTask.getId())).isPresent();
+        assertThat(taskRepository.count()).isEqualTo(count);
+    }
+
+    // LIKE wildcards in the text match themselves
+    @ParameterizedTest
+    @ValueSource(strings = {"%25", "_", "%25_%25"})
+    public void testBulkWithWildcardTitle(String titleCont) throws Exception {
+        var count = taskRepository.count();
+        assertThat(bulk("?titleCont=" + titleCont, Map.of("action", "DELETE"))).isZero();
+        assertThat(taskRepository.count()).isEqualTo(count);
+    }
+
+    private long bulk(String filter, Map<String, Object> data) throws Exception {
+        var request = post("/api/tasks/bulk" + filter).with(token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(om.writeValueAsString(data));
+        var body = mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        return om.readTree(body).get("affected").asLong();
+    }
+
+    @Test
+    public void testSearch() throws Exception {
+        var word = "w" + faker.number().digits(10);
+        var inContent = createForSearch(faker.lorem().word(), "Move the " + word + " billing service to the new host");
+        var inTitle = createForSearch("Retire " + word, "The service for billing is replaced");
+
+        // Title matches weigh more than description matches
+        assertThat(search("q=" + word)).containsExactly(inTitle, inContent);
+        assertThat(search("q=" + word + " \"billing service\"")).containsExactly(inContent);
+        assertThat(search("q=" + word + "&labelId=" + testLabel.getId() + "&status=" + testTaskStatus.getSlug()))
+                .containsExactly(inTitle, inContent);
+        assertThat(search("q=" + word + "&assigneeId=" + testUser.getId())).isEmpty();
+        mockMvc.perform(get("/api/tasks/search?q=" + word + " AND (").with(token))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(delete("/api/tasks/" + inContent).with(token)).andExpect(status().isNoContent());
+        assertThat(search("q=" + word)).containsExactly(inTitle);
+
+        taskSearchIndex.rebuild();
+        assertThat(search("q=" + word)).containsExactly(inTitle);
+        mockMvc.perform(delete("/api/tasks/" + inTitle).with(token));
+    }
+
+    private long createForSearch(String title, String content) throws Exception {
+        var data = new TaskCreateDTO();
+        data.setTitle(title);
+        data.setContent(content);
+        data.setStatus(testTaskStatus.getSlug());
+        data.setTaskLabelIds(Set.of(testLabel.getId()));
+        var request = post("/api/tasks").with(token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(om.writeValueAsString(data));
+        var body = mockMvc.perform(request).andExpect(status().isCreated()).andReturn().getResponse()
+                .getContentAsString();
+        return om.readTree(body).get("id").asLong();
+    }
+
+    private List<Long> search(String query) throws Exception {
+        var body = mockMvc.perform(get("/api/tasks/search?" + query).with(token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        var ids = new ArrayList<Long>();
+        om.readTree(body).forEach(task -> ids.add(task.get("id").asLong()));
+        return ids;
+    }
+
     @Test
     public void testCreate() throws Exception {
         var createData = new TaskCreateDTO();
@@ -188,6 +569,59 @@ public class TasksControllerTest {
         taskRepository.deleteById(id);
     }
 
+    // With the status cached, the labels are the only read before the insert
+    @Test
+    public void testCreateQueryBudget() throws Exception {
+        var ids = new ArrayList<Long>();
+        try {
+            for (var labelIds : List.of(Set.<Long>of(), Set.of(testLabel.getId()))) {
+                var createData = new TaskCreateDTO();
+                createData.setAssigneeId(testUser.getId());
+                createData.setTitle(faker.lorem().word());
+                createData.setStatus(testTaskStatus.getSlug());
+                createData.setTaskLabelIds(labelIds);
+                var request = post("/api/tasks")
+                        .with(token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(createData));
+                var warmUp = mockMvc.perform(request)
+                        .andExpect(status().isCreated())
+                        .andReturn().getResponse().getContentAsString();
+                ids.add(om.readTree(warmUp).get("id").asLong());
+
+                var body = queryCounter.atMostSelects(labelIds.size(), () -> mockMvc.perform(request)
+                        .andExpect(status().isCreated())
+                        .andReturn().getResponse().getContentAsString());
+                ids.add(om.readTree(body).get("id").asLong());
+                assertThatJson(body).and(
+                        v -> v.node("status").isEqualTo(testTaskStatus.getSlug()),
+                        v -> v.node("assignee_id").isEqualTo(testUser.getId()));
+            }
+        } finally {
+            taskRepository.deleteAllById(ids);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"assignee", "label", "status"})
+    public void testCreateWithUnknownReference(String reference) throws Exception {
+        var createData = new TaskCreateDTO();
+        createData.setTitle(faker.lorem().word());
+        createData.setStatus(reference.equals("status") ? "unknown" + faker.lorem().word() : testTaskStatus.getSlug());
+        createData.setAssigneeId(reference.equals("assignee") ? Long.MAX_VALUE : testUser.getId());
+        createData.setTaskLabelIds(reference.equals("label") ? Set.of(testLabel.getId(), Long.MAX_VALUE)
+                : Set.of(testLabel.getId()));
+
+        var count = taskRepository.count();
+
+        var request = post("/api/tasks")
+                .with(token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(om.writeValueAsString(createData));
+        mockMvc.perform(request).andExpect(status().isNotFound());
+        assertThat(taskRepository.count()).isEqualTo(count);
+    }
+
     @Test
     public void testCreateWithPartialData() throws Exception {
         var createData = new TaskCreateDTO();
@@ -287,6 +721,58 @@ public class TasksControllerTest {
         assertThat(updatedTask.getTaskStatus().getSlug()).isEqualTo(updateData.getStatus().get());
     }
 
+    // Parallel read-modify-write increments: every writer retries on 412 until its change lands
+    @Test
+    public void testConcurrentUpdatesAreNotLost() throws Exception {
+        var writers = 4;
+        var incrementsPerWriter = 5;
+        var initialIndex = testTask.getIndex();
+        var executor = Executors.newFixedThreadPool(writers);
+        var conflicts = new AtomicInteger();
+        try {
+            var futures = new ArrayList<Future<?>>();
+            for (var writer = 0; writer < writers; writer++) {
+                // A subject per writer, retries must not run into the per-user rate limit
+                var writerToken = jwt().jwt(builder -> builder.subject(faker.internet().emailAddress()));
+                futures.add(executor.submit(() -> {
+                    for (var i = 0; i < incrementsPerWriter; i++) {
+                        while (!tryIncrementIndex(writerToken)) {
+                            conflicts.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (var future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        var task = taskRepository.findById(testTask.getId()).orElseThrow();
+        assertThat(task.getIndex()).isEqualTo(initialIndex + writers * incrementsPerWriter);
+        assertThat(task.getVersion()).isEqualTo(testTask.getVersion() + writers * incrementsPerWriter);
+    }
+
+    private boolean tryIncrementIndex(SecurityMockMvcRequestPostProcessors.JwtRequestPostProcessor writerToken)
+            throws Exception {
+        var response = mockMvc.perform(get("/api/tasks/{id}", testTask.getId()).with(writerToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        var index = om.readTree(response.getContentAsString()).get("index").asLong();
+
+        var updateData = new TaskUpdateDTO();
+        updateData.setIndex(JsonNullable.of(index + 1));
+        var request = put("/api/tasks/{id}", testTask.getId()).with(writerToken)
+                .header("If-Match", response.getHeader("ETag"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(om.writeValueAsString(updateData));
+        var status = mockMvc.perform(request).andReturn().getResponse().getStatus();
+        assertThat(status).isIn(200, 412);
+        return status == 200;
+    }
+
     @Test
     public void testPartialUpdate() throws Exception {
         var updateData = new TaskUpdateDTO();
@@ -308,6 +794,97 @@ public class TasksControllerTest {
         assertThat(updatedTask.getTaskStatus().getSlug()).isEqualTo(testTask.getTaskStatus().getSlug());
     }
 
+    // One field is one read of the task and an UPDATE of that column, labels change only the rows that differ
+    @Test
+    public void testPartialUpdateWritesOnlyChangedColumns() throws Exception {
+        var column = taskStatusRepository.save(modelUtils.newTaskStatus());
+        var otherLabel = labelRepository.save(modelUtils.newLabel());
+        try {
+            var statusData = new TaskUpdateDTO();
+            statusData.setStatus(JsonNullable.of(column.getSlug()));
+            var statusChange = perform(statusData);
+            assertThat(statusChange.selects()).isLessThanOrEqualTo(2);
+            assertThat(updatesOf(statusChange)).singleElement().satisfies(sql -> assertThat(sql)
+                    .contains("task_status_id").doesNotContain("name").doesNotContain("description"));
+
+            var labelData = new TaskUpdateDTO();
+            labelData.setTaskLabelIds(JsonNullable.of(Set.of(testLabel.getId(), otherLabel.getId())));
+            var labelChange = perform(labelData);
+            assertThat(labelChange.selects()).isLessThanOrEqualTo(2);
+            assertThat(labelChange.statements()).noneMatch(sql -> sql.toLowerCase().startsWith("delete"));
+
+            var task = taskRepository.findById(testTask.getId()).orElseThrow();
+            assertThat(task.getTaskStatus().getId()).isEqualTo(column.getId());
+            assertThat(task.getLabels()).containsExactlyInAnyOrder(testLabel, otherLabel);
+            assertThat(task.getName()).isEqualTo(testTask.getName());
+            assertThat(task.getVersion()).isEqualTo(testTask.getVersion() + 2);
+        } finally {
+            var task = taskRepository.findById(testTask.getId()).orElseThrow();
+            task.setTaskStatus(testTaskStatus);
+            task.setLabels(new HashSet<>(Set.of(testLabel)));
+            taskRepository.save(task);
+            labelRepository.deleteById(otherLabel.getId());
+            taskStatusRepository.deleteById(column.getId());
+        }
+    }
+
+    // Neither the task nor the outbox is written, the version stays
+    @Test
+    public void testUnchangedUpdateWritesNothing() throws Exception {
+        var updateData = new TaskUpdateDTO();
+        updateData.setTitle(JsonNullable.of(testTask.getName()));
+        updateData.setTaskLabelIds(JsonNullable.of(Set.of(testLabel.getId())));
+
+        var counts = perform(updateData);
+        assertThat(counts.writes()).as("writes, %s", counts).isZero();
+        var task = taskRepository.findById(testTask.getId()).orElseThrow();
+        assertThat(task.getVersion()).isEqualTo(testTask.getVersion());
+    }
+
+    private QueryCounter.Counts perform(TaskUpdateDTO data) throws Exception {
+        var request = put("/api/tasks/{id}", testTask.getId())
+                .with(token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(om.writeValueAsString(data));
+        var counts = queryCounter.start();
+        String body;
+        try (counts) {
+            body = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+        }
+        // The response is built without reading the task again, it has to match what was written
+        var task = taskRepository.findById(testTask.getId()).orElseThrow();
+        assertThatJson(body).and(
+                v -> v.node("version").isEqualTo(task.getVersion()),
+                v -> v.node("status").isEqualTo(task.getTaskStatus().getSlug()),
+                v -> v.node("title").isEqualTo(task.getName()));
+        return counts;
+    }
+
+    private static List<String> updatesOf(QueryCounter.Counts counts) {
+        return counts.statements().stream()
+                .filter(sql -> sql.toLowerCase().startsWith("update tasks"))
+                .toList();
+    }
+
+    @Test
+    public void testUpdateWithUnknownAssignee() throws Exception {
+        var updateData = new TaskUpdateDTO();
+        updateData.setAssigneeId(JsonNullable.of(Long.MAX_VALUE));
+
+        var request = put("/api/tasks/{id}", testTask.getId())
+                .with(token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(om.writeValueAsString(updateData));
+        mockMvc.perform(request)
+                .andExpect(status().isNotFound())
+                .andExpect(content().string("User with id " + Long.MAX_VALUE + " not found"));
+
+        var task = taskRepository.findById(testTask.getId()).orElseThrow();
+        assertThat(task.getVersion()).isEqualTo(testTask.getVersion());
+    }
+
     @ParameterizedTest
     @MethodSource("supplyWithCreateAndUpdateInvalidData")
     public void testUpdateWithInvalidData(String title, String statusSlug) throws Exception {
@@ -332,4 +909,35 @@ public class TasksControllerTest {
         mockMvc.perform(request).andExpect(status().isNoContent());
         assertThat(taskRepository.findById(id)).isEmpty();
     }
+
+    @Test
+    public void testChangesArePublishedThroughOutbox() throws Exception {
+        var createData = new TaskCreateDTO();
+        createData.setTitle(faker.lorem().word());
+        createData.setStatus(testTaskStatus.getSlug());
+        var createRequest = post("/api/tasks")
+                .with(token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(om.writeValueAsString(createData));
+        var responseBody = mockMvc.perform(createRequest)
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Long id = om.readTree(responseBody).get("id").asLong();
+
+        var updateData = new TaskUpdateDTO();
+        updateData.setAssigneeId(JsonNullable.of(testUser.getId()));
+        var updateRequest = put("/api/tasks/{id}", id)
+                .with(token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(om.writeValueAsString(updateData));
+        mockMvc.perform(updateRequest).andExpect(status().isOk());
+
+        mockMvc.perform(delete("/api/tasks/{id}", id).with(token)).andExpect(status().isNoContent());
+
+        outboxRelay.drain();
+        var events = outboxEventSink.getEvents(id);
+        assertThat(events).extracting(OutboxEvent::getType).containsExactly(
+                TaskEventType.CREATED, TaskEventType.UPDATED, TaskEventType.ASSIGNED, TaskEventType.DELETED);
+        assertThatJson(events.get(0).getPayload()).node("title").isEqualTo(createData.getTitle());
+    }
 }
@@ -16,6 +16,7 @@ import hexlet.code.exception.ResourceNotFoundException;
 import hexlet.code.model.User;
 import hexlet.code.repository.UserRepository;
 import hexlet.code.util.ModelUtils;
+import hexlet.code.util.QueryCounter;
 import net.datafaker.Faker;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -24,6 +25,7 @@ import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.openapitools.jackson.nullable.JsonNullable;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -32,6 +34,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.JwtRequestPostProcessor;
 
+import java.util.ArrayList;
 import java.util.stream.Stream;
 
 @SpringBootTest
@@ -54,6 +57,9 @@ public class UserControllerTest {
     @Autowired
     private ModelUtils modelUtils;
 
+    @Autowired
+    private QueryCounter queryCounter;
+
     private JwtRequestPostProcessor token;
     private User testUser;
 
@@ -80,6 +86,47 @@ public class UserControllerTest {
         assertThatJson(body).isArray();
     }
 
+    @ParameterizedTest
+    @ValueSource(ints = {1, 30})
+    public void testIndexQueryBudget(int size) throws Exception {
+        var ids = new ArrayList<Long>();
+        for (var i = 0; i < size; i++) {
+            ids.add(userRepository.save(modelUtils.newUser()).getId());
+        }
+        try {
+            var body = queryCounter.atMostSelects(1, () -> mockMvc.perform(get("/api/users").with(token))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            assertThat(om.readTree(body).size()).isGreaterThan(size);
+        } finally {
+            userRepository.deleteAllById(ids);
+        }
+    }
+
+    @Test
+    public void testIndexPaged() throws Exception {
+        var newest = userRepository.save(modelUtils.newUser());
+        try {
+            var request = get("/api/users?_start=0&_end=2&_sort=id&_order=DESC").with(token);
+            var result = mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+            var body = om.readTree(result.getResponse().getContentAsString());
+            assertThat(body).hasSize(2);
+            assertThat(body.get(0).get("id").asLong()).isEqualTo(newest.getId());
+            assertThat(body.get(1).get("id").asLong()).isEqualTo(testUser.getId());
+            assertThat(result.getResponse().getHeader("X-Total-Count"))
+                    .isEqualTo(String.valueOf(userRepository.count()));
+
+            request = get("/api/users?range=[1,1]&sort=[\"email\",\"ASC\"]").with(token);
+            body = om.readTree(mockMvc.perform(request).andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            assertThat(body).hasSize(1);
+            mockMvc.perform(get("/api/users?_start=0&_end=2&_sort=password").with(token))
+                    .andExpect(status().isBadRequest());
+        } finally {
+            userRepository.deleteById(newest.getId());
+        }
+    }
+
     @Test
     public void testCreate() throws Exception {
         var createData = new UserCreateDTO();
@@ -257,4 +304,93 @@ public class UserControllerTest {
 
         assertThat(userRepository.findById(id)).isEmpty();
     }
+
+    @Test
+    public void testImportJson() throws Exception {
+        var email = faker.internet().emailAddress();
+        var body = "["
+                + "{\"email\": \"" + email + "\", \"firstName\": \"Ann\", \"password\": \"secret\"},"
+                + "{\"email\": \"not-an-email\", \"password\": \"secret\"},"
+                + "{\"email\": \"" + email + "\", \"password\": \"secret\"},"
+                + "{\"email\": \"" + testUser.getEmail() + "\", \"password\": \"secret\"}"
+                + "]";
+
+        var request = post("/api/users/import")
+                .with(token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body);
+        var result = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertThatJson(result.getResponse().getContentAsString()).and(
+                b -> b.node("imported").isEqualTo(1),
+                b -> b.node("errors").isArray().hasSize(3),
+                b -> b.node("errors[0].row").isEqualTo(2),
+                b -> b.node("errors[1].row").isEqualTo(3),
+                b -> b.node("errors[2].row").isEqualTo(4)
+        );
+        var user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("\ntestImportJson() in UserControllerTest failed\n"));
+        assertThat(user.getFirstName()).isEqualTo("Ann");
+        assertThat(user.getEncryptedPassword()).isNotEqualTo("secret");
+        userRepository.deleteById(user.getId());
+    }
+
+    // Rows before the malformed one are imported, it ends the import as an error instead of failing the request
+    @Test
+    public void testImportMalformedJson() throws Exception {
+        var email = faker.internet().emailAddress();
+        var body = "["
+                + "{\"email\": \"" + email + "\", \"password\": \"secret\"},"
+                + "{\"email\": \"" + faker.internet().emailAddress() + "\", \"password\": "
+                + "{\"email\": \"" + faker.internet().emailAddress() + "\", \"password\": \"secret\"}"
+                + "]";
+
+        var request = post("/api/users/import")
+                .with(token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body);
+        var result = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertThatJson(result.getResponse().getContentAsString()).and(
+                b -> b.node("imported").isEqualTo(1),
+                b -> b.node("errors").isArray().hasSize(1),
+                b -> b.node("errors[0].row").isEqualTo(2)
+        );
+        var user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("\ntestImportMalformedJson() failed\n"));
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    public void testImportCsv() throws Exception {
+        var firstEmail = faker.internet().emailAddress();
+        var secondEmail = faker.internet().emailAddress();
+        var body = "email,first_name,last_name,password\n"
+                + firstEmail + ",\"Smith, John\",Doe,secret\n"
+                + secondEmail + ",,,secret\n"
+                + faker.internet().emailAddress() + ",\"Unclosed,,secret\n";
+
+        var request = post("/api/users/import")
+                .with(token)
+                .contentType("text/csv")
+                .content(body);
+        var result = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertThatJson(result.getResponse().getContentAsString()).and(
+                b -> b.node("imported").isEqualTo(2),
+                b -> b.node("errors").isArray().hasSize(1),
+                b -> b.node("errors[0].row").isEqualTo(3)
+        );
+        var user = userRepository.findByEmail(firstEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("\ntestImportCsv() in UserControllerTest failed\n"));
+        assertThat(user.getFirstName()).isEqualTo("Smith, John");
+        userRepository.deleteById(user.getId());
+        userRepository.findByEmail(secondEmail).ifPresent(userRepository::delete);
+    }
 }
@@ -0,0 +1,78 @@
+package hexlet.code.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+    "rate-limit.rules[0].path=/api/login",
+    "rate-limit.rules[0].method=POST",
+    "rate-limit.rules[0].key=ip",
+    "rate-limit.rules[0].capacity=2",
+    "rate-limit.rules[0].period=1h",
+    "rate-limit.rules[1].path=/api/labels/**",
+    "rate-limit.rules[1].key=subject",
+    "rate-limit.rules[1].capacity=2",
+    "rate-limit.rules[1].period=1h"
+})
+@AutoConfigureMockMvc
+public class RateLimitFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testLoginIsLimitedByIp() throws Exception {
+        var body = "{\"username\": \"hexlet@example.com\", \"password\": \"qwerty\"}";
+        for (var i = 0; i < 2; i++) {
+            mockMvc.perform(post("/api/login").contentType(MediaType.APPLICATION_JSON).content(body))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(post("/api/login").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+    }
+
+    // Behind the load balancer the remote address is the client's one from X-Forwarded-For
+    @Test
+    public void testLoginIsLimitedPerClient() throws Exception {
+        var body = "{\"username\": \"hexlet@example.com\", \"password\": \"qwerty\"}";
+        for (var i = 0; i < 3; i++) {
+            mockMvc.perform(post("/api/login").with(remoteAddr("203.0.113.7"))
+                    .contentType(MediaType.APPLICATION_JSON).content(body));
+        }
+        mockMvc.perform(post("/api/login").with(remoteAddr("203.0.113.8"))
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk());
+    }
+
+    private static RequestPostProcessor remoteAddr(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+
+    @Test
+    public void testRequestsAreLimitedBySubject() throws Exception {
+        var token = jwt().jwt(builder -> builder.subject("limited@example.com"));
+        for (var i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/labels").with(token)).andExpect(status().isOk());
+        }
+        mockMvc.perform(get("/api/labels").with(token)).andExpect(status().isTooManyRequests());
+
+        var otherToken = jwt().jwt(builder -> builder.subject("other@example.com"));
+        mockMvc.perform(get("/api/labels").with(otherToken)).andExpect(status().isOk());
+    }
+}
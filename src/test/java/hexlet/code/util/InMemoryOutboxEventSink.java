@@ -0,0 +1,23 @@
+package hexlet.code.util;
+
+import hexlet.code.component.OutboxEventSink;
+import hexlet.code.model.OutboxEvent;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class InMemoryOutboxEventSink implements OutboxEventSink {
+
+    private final List<OutboxEvent> events = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(List<OutboxEvent> batch) {
+        events.addAll(batch);
+    }
+
+    public List<OutboxEvent> getEvents(Long aggregateId) {
+        return events.stream()
+                .filter(event -> event.getAggregateId().equals(aggregateId))
+                .toList();
+    }
+}
@@ -0,0 +1,62 @@
+package hexlet.code.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class JwsDecodersTest {
+
+    // Every read of the key set sees new key objects, as after JwtKeys.refresh()
+    @Test
+    public void testTokenVerifiesWhileKeysAreRefreshed() throws Exception {
+        var pair = generate();
+        var reads = new AtomicInteger();
+        var decoder = JwsDecoders.of(() -> {
+            reads.incrementAndGet();
+            return List.of(new JwtKey(pair.getPublic(), null, null));
+        });
+
+        var jwt = decoder.decode(sign(new JwtKey(pair.getPublic(), pair.getPrivate(), null)));
+
+        assertThat(jwt.getSubject()).isEqualTo("hexlet@example.com");
+        assertThat(reads).hasValue(1);
+    }
+
+    @Test
+    public void testTokenOfUnknownKeyIsRejected() throws Exception {
+        var known = generate();
+        var unknown = generate();
+        var decoder = JwsDecoders.of(() -> List.of(new JwtKey(known.getPublic(), null, null)));
+
+        var token = sign(new JwtKey(unknown.getPublic(), unknown.getPrivate(), null));
+
+        assertThatThrownBy(() -> decoder.decode(token)).isInstanceOf(BadJwtException.class);
+    }
+
+    private static String sign(JwtKey key) {
+        var now = Instant.now();
+        var claims = JwtClaimsSet.builder()
+                .issuedAt(now)
+                .expiresAt(now.plus(1, ChronoUnit.HOURS))
+                .subject("hexlet@example.com")
+                .build();
+        return new JwsEncoder(() -> key).encode(JwtEncoderParameters.from(claims)).getTokenValue();
+    }
+
+    private static KeyPair generate() throws Exception {
+        var generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(256);
+        return generator.generateKeyPair();
+    }
+}
@@ -17,11 +17,16 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
 import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Getter
 @Component
 public class ModelUtils {
 
+    // Test contexts share one database. Faker has few words, so a name or slug could come up again after a test
+    // deleted its status, and the status cache of a context would still hold the old id for it
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
     @Autowired
     private Faker faker;
 
@@ -46,18 +51,20 @@ public class ModelUtils {
     private Label label;
 
     public ModelUtils generateData() {
-        createUser();
-        createTaskStatus();
-        createLabel();
-        createTask();
+        user = newUser();
+        taskStatus = newTaskStatus();
+        label = newLabel();
+        task = newTask(taskStatus, user);
+        task.getLabels().add(label);
 
         return this;
     }
 
-    private void createUser() {
+    public User newUser() {
         var encodedPassword = passwordEncoder.encode(faker.internet().password(3, 20));
-        user = Instancio.of(User.class)
+        return Instancio.of(User.class)
                 .ignore(Select.field(User::getId))
+                .ignore(Select.field(User::getVersion))
                 .supply(Select.field(User::getFirstName), () -> faker.name().firstName())
                 .supply(Select.field(User::getLastName), () -> faker.name().lastName())
                 .supply(Select.field(User::getEmail), () -> faker.internet().emailAddress())
@@ -67,35 +74,41 @@ public class ModelUtils {
                 .create();
     }
 
-    private void createTaskStatus() {
-        taskStatus = Instancio.of(TaskStatus.class)
+    public TaskStatus newTaskStatus() {
+        return Instancio.of(TaskStatus.class)
                 .ignore(Select.field(TaskStatus::getId))
-                .supply(Select.field(TaskStatus::getName), () -> faker.lorem().word())
-                .supply(Select.field(TaskStatus::getSlug), () -> faker.lorem().word())
+                .ignore(Select.field(TaskStatus::getVersion))
+                .supply(Select.field(TaskStatus::getName), () -> unique(faker.lorem().word(), " "))
+                .supply(Select.field(TaskStatus::getSlug), () -> unique(faker.lorem().word(), "_"))
                 .ignore(Select.field(TaskStatus::getCreatedAt))
                 .ignore(Select.field(TaskStatus::getTasks))
                 .create();
     }
 
-    private void createLabel() {
-        label = Instancio.of(Label.class)
+    public Label newLabel() {
+        return Instancio.of(Label.class)
                 .ignore(Select.field(Label::getId))
+                .ignore(Select.field(Label::getVersion))
                 .supply(Select.field(Label::getName), () -> faker.lorem().characters(3, 1000))
                 .ignore(Select.field(Label::getTasks))
                 .ignore(Select.field(Label::getCreatedAt))
                 .create();
     }
 
-    private void createTask() {
-        task = Instancio.of(Task.class)
+    private static String unique(String word, String separator) {
+        return word + separator + SEQUENCE.incrementAndGet();
+    }
+
+    public Task newTask(TaskStatus status, User assignee) {
+        return Instancio.of(Task.class)
                 .ignore(Select.field(Task::getId))
+                .ignore(Select.field(Task::getVersion))
                 .supply(Select.field(Task::getName), () -> faker.lorem().word())
                 .supply(Select.field(Task::getIndex), () -> faker.number().numberBetween(1L, 10000L))
                 .supply(Select.field(Task::getDescription), () -> faker.lorem().paragraph())
-                .supply(Select.field(Task::getTaskStatus), () -> taskStatus)
-                .supply(Select.field(Task::getAssignee), () -> user)
+                .supply(Select.field(Task::getTaskStatus), () -> status)
+                .supply(Select.field(Task::getAssignee), () -> assignee)
                 .supply(Select.field(Task::getLabels), () -> new HashSet<Long>())
                 .create();
-        task.getLabels().add(label);
     }
 }
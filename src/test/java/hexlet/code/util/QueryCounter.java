@@ -0,0 +1,102 @@
+package hexlet.code.util;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.QueryType;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Statements executed on the calling thread while counting, by type. Work on other threads, the outbox relay or
+// the slow-query log, does not count. Counts nest, a statement counts for every enclosing count
+public class QueryCounter implements QueryExecutionListener {
+
+    private final ThreadLocal<Deque<Counts>> active = ThreadLocal.withInitial(ArrayDeque::new);
+
+    // Counts until closed
+    public Counts start() {
+        var counts = new Counts(active.get());
+        counts.stack.push(counts);
+        return counts;
+    }
+
+    // Fails when the action runs more selects than the budget, whatever the size of the data it reads
+    public <T> T atMostSelects(int selects, Call<T> action) throws Exception {
+        try (var counts = start()) {
+            var result = action.call();
+            assertThat(counts.selects()).as("selects, %s", counts).isLessThanOrEqualTo(selects);
+            return result;
+        }
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo info, List<QueryInfo> queries) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo info, List<QueryInfo> queries) {
+        var stack = active.get();
+        if (stack.isEmpty()) {
+            return;
+        }
+        for (var query : queries) {
+            var type = QueryUtils.getQueryType(query.getQuery());
+            stack.forEach(counts -> counts.add(type, query.getQuery()));
+        }
+    }
+
+    public interface Call<T> {
+        T call() throws Exception;
+    }
+
+    public static final class Counts implements AutoCloseable {
+
+        private final Deque<Counts> stack;
+        private final Map<QueryType, Integer> byType = new EnumMap<>(QueryType.class);
+        private final List<String> statements = new ArrayList<>();
+
+        private Counts(Deque<Counts> stack) {
+            this.stack = stack;
+        }
+
+        @Override
+        public void close() {
+            stack.remove(this);
+        }
+
+        private void add(QueryType type, String sql) {
+            byType.merge(type, 1, Integer::sum);
+            statements.add(sql);
+        }
+
+        public List<String> statements() {
+            return statements;
+        }
+
+        public int selects() {
+            return byType.getOrDefault(QueryType.SELECT, 0);
+        }
+
+        public int writes() {
+            return byType.getOrDefault(QueryType.INSERT, 0) + byType.getOrDefault(QueryType.UPDATE, 0)
+                    + byType.getOrDefault(QueryType.DELETE, 0);
+        }
+
+        public int total() {
+            return byType.values().stream().mapToInt(Integer::intValue).sum();
+        }
+
+        @Override
+        public String toString() {
+            return byType + " " + statements;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package hexlet.code.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SingleFlightTest {
+
+    @Test
+    public void testConcurrentCallersShareOneLoad() throws Exception {
+        var singleFlight = new SingleFlight<String, Integer>(Duration.ZERO);
+        var loads = new AtomicInteger();
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var callers = 8;
+
+        var executor = Executors.newFixedThreadPool(callers);
+        try {
+            var futures = new ArrayList<Future<Integer>>();
+            futures.add(executor.submit(() -> singleFlight.execute("key", () -> {
+                started.countDown();
+                await(release);
+                return loads.incrementAndGet();
+            })));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            for (var i = 1; i < callers; i++) {
+                futures.add(executor.submit(() -> singleFlight.execute("key", loads::incrementAndGet)));
+            }
+            while (singleFlight.sharedCount() < callers - 1) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (var future : futures) {
+                assertThat(future.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(singleFlight.inFlight()).isZero();
+
+        // Nothing is kept with a zero ttl, a later call loads again
+        assertThat(singleFlight.execute("key", loads::incrementAndGet)).isEqualTo(2);
+    }
+
+    @Test
+    public void testFailureIsNotCached() {
+        var singleFlight = new SingleFlight<String, Integer>(Duration.ofMinutes(1));
+        assertThatThrownBy(() -> singleFlight.execute("key", () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(singleFlight.execute("key", () -> 1)).isEqualTo(1);
+        assertThat(singleFlight.execute("key", () -> 2)).isEqualTo(1);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
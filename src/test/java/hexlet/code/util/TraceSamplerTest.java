@@ -0,0 +1,144 @@
+package hexlet.code.util;
+
+import hexlet.code.component.TraceSamplingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.sentry.SamplingContext;
+import io.sentry.SpanContext;
+import io.sentry.SpanId;
+import io.sentry.SpanStatus;
+import io.sentry.TransactionContext;
+import io.sentry.protocol.SentryId;
+import io.sentry.protocol.SentrySpan;
+import io.sentry.protocol.SentryTransaction;
+import io.sentry.protocol.TransactionInfo;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TraceSamplerTest {
+
+    @Test
+    public void testErrorsAndSlowRequestsAreKept() {
+        var properties = properties(0.0);
+        var registry = new SimpleMeterRegistry();
+        var sampler = new TraceSampler(properties, registry);
+
+        // Everything is recorded, the decision is made at the end
+        assertThat(sampler.sample(starting("GET /api/tasks/42"))).isEqualTo(1.0);
+        assertThat(sampler.sample(starting("GET /actuator/health"))).isEqualTo(0.0);
+
+        assertThat(sampler.execute(finished("GET /api/tasks/{id}", SpanStatus.INTERNAL_ERROR, 0.01), null))
+                .isNotNull();
+        assertThat(sampler.execute(finished("GET /api/tasks/{id}", SpanStatus.OK, 2.5), null)).isNotNull();
+        assertThat(sampler.execute(finished("GET /api/tasks/{id}", SpanStatus.NOT_FOUND, 0.01), null)).isNull();
+        assertThat(sampler.execute(finished("GET /api/tasks/{id}", SpanStatus.OK, 0.01), null)).isNull();
+        assertThat(registry.counter("tracing.transactions", "decision", "dropped").count()).isEqualTo(2);
+    }
+
+    @Test
+    public void testEndpointRateOverridesBaseRate() {
+        var properties = properties(0.0);
+        var endpoint = new TraceSamplingProperties.Endpoint();
+        endpoint.setPath("/api/tasks/**");
+        endpoint.setMethod("GET");
+        endpoint.setRate(1.0);
+        properties.getEndpoints().add(0, endpoint);
+        var sampler = new TraceSampler(properties, new SimpleMeterRegistry());
+
+        assertThat(sampler.execute(finished("GET /api/tasks/{id}", SpanStatus.OK, 0.01), null)).isNotNull();
+        assertThat(sampler.execute(finished("PUT /api/tasks/{id}", SpanStatus.OK, 0.01), null)).isNull();
+    }
+
+    @Test
+    public void testHeadSamplingWithoutErrorsOrSlowRequests() {
+        var properties = properties(0.25);
+        properties.setKeepErrors(false);
+        properties.setSlowThreshold(null);
+        var sampler = new TraceSampler(properties, new SimpleMeterRegistry());
+
+        assertThat(sampler.sample(starting("GET /api/labels"))).isEqualTo(0.25);
+        // Sampled at the start, so kept at the end
+        assertThat(sampler.execute(finished("GET /api/labels", SpanStatus.OK, 0.01), null)).isNotNull();
+    }
+
+    @Test
+    public void testSpansPerSecondAreCapped() {
+        var properties = properties(1.0);
+        properties.setMaxSpansPerSecond(2);
+        var registry = new SimpleMeterRegistry();
+        var sampler = new TraceSampler(properties, registry);
+
+        var kept = 0;
+        for (var i = 0; i < 10; i++) {
+            if (sampler.execute(finished("GET /api/labels", SpanStatus.INTERNAL_ERROR, 0.01), null) != null) {
+                kept++;
+            }
+        }
+        assertThat(kept).isEqualTo(2);
+        assertThat(registry.counter("tracing.transactions", "decision", "capped").count()).isEqualTo(8);
+    }
+
+    // A transaction that does not fit into what is left takes nothing, so a smaller one after it still fits
+    @Test
+    public void testSpansAreTakenAllOrNothing() {
+        var properties = properties(1.0);
+        properties.setMaxSpansPerSecond(3);
+        var sampler = new TraceSampler(properties, new SimpleMeterRegistry());
+
+        assertThat(sampler.execute(finished("GET /api/labels", SpanStatus.INTERNAL_ERROR, 0.01, 1), null))
+                .isNotNull();
+        assertThat(sampler.execute(finished("GET /api/labels", SpanStatus.INTERNAL_ERROR, 0.01, 2), null)).isNull();
+        assertThat(sampler.execute(finished("GET /api/labels", SpanStatus.INTERNAL_ERROR, 0.01, 0), null))
+                .isNotNull();
+    }
+
+    @Test
+    public void testTransactionLargerThanTheBudgetTakesNothing() {
+        var properties = properties(1.0);
+        properties.setMaxSpansPerSecond(3);
+        var sampler = new TraceSampler(properties, new SimpleMeterRegistry());
+
+        assertThat(sampler.execute(finished("GET /api/labels", SpanStatus.INTERNAL_ERROR, 0.01, 3), null)).isNull();
+        assertThat(sampler.execute(finished("GET /api/labels", SpanStatus.INTERNAL_ERROR, 0.01, 2), null))
+                .isNotNull();
+    }
+
+    private static TraceSamplingProperties properties(double baseRate) {
+        var properties = new TraceSamplingProperties();
+        properties.setBaseRate(baseRate);
+        properties.setSlowThreshold(Duration.ofSeconds(1));
+        var health = new TraceSamplingProperties.Endpoint();
+        health.setPath("/actuator/**");
+        health.setRate(0);
+        properties.setEndpoints(new ArrayList<>(List.of(health)));
+        return properties;
+    }
+
+    private static SamplingContext starting(String name) {
+        return new SamplingContext(new TransactionContext(name, "http.server"), null);
+    }
+
+    private static SentryTransaction finished(String name, SpanStatus status, double seconds) {
+        return finished(name, status, seconds, 0);
+    }
+
+    private static SentryTransaction finished(String name, SpanStatus status, double seconds, int children) {
+        var start = 1_700_000_000.0;
+        var spans = new ArrayList<SentrySpan>();
+        for (var i = 0; i < children; i++) {
+            spans.add(new SentrySpan(start, start + seconds, new SentryId(), new SpanId(), null, "db", null,
+                    SpanStatus.OK, null, new HashMap<>(), new HashMap<>(), null, null));
+        }
+        var transaction = new SentryTransaction(name, start, start + seconds, spans, new HashMap<>(),
+                new HashMap<>(), new TransactionInfo("route"));
+        var trace = new SpanContext("http.server");
+        trace.setStatus(status);
+        transaction.getContexts().setTrace(trace);
+        return transaction;
+    }
+}